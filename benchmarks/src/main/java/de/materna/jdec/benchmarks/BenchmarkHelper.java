@@ -0,0 +1,46 @@
+package de.materna.jdec.benchmarks;
+
+import java.math.BigDecimal;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+public class BenchmarkHelper {
+	/**
+	 * The engines return different number types, so numbers are compared by their value, also inside of lists and maps.
+	 */
+	public static boolean matches(Object expected, Object actual) {
+		if (expected instanceof Number && actual instanceof Number) {
+			return new BigDecimal(expected.toString()).compareTo(new BigDecimal(actual.toString())) == 0;
+		}
+		if (expected instanceof List && actual instanceof List) {
+			List<?> expectedList = (List<?>) expected;
+			List<?> actualList = (List<?>) actual;
+			if (expectedList.size() != actualList.size()) {
+				return false;
+			}
+			Iterator<?> actualIterator = actualList.iterator();
+			for (Object expectedItem : expectedList) {
+				if (!matches(expectedItem, actualIterator.next())) {
+					return false;
+				}
+			}
+			return true;
+		}
+		if (expected instanceof Map && actual instanceof Map) {
+			Map<?, ?> expectedMap = (Map<?, ?>) expected;
+			Map<?, ?> actualMap = (Map<?, ?>) actual;
+			if (!expectedMap.keySet().equals(actualMap.keySet())) {
+				return false;
+			}
+			for (Map.Entry<?, ?> entry : expectedMap.entrySet()) {
+				if (!matches(entry.getValue(), actualMap.get(entry.getKey()))) {
+					return false;
+				}
+			}
+			return true;
+		}
+		return Objects.equals(expected, actual);
+	}
+}
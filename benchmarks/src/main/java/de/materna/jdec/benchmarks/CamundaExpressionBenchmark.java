@@ -0,0 +1,27 @@
+package de.materna.jdec.benchmarks;
+
+import de.materna.jdec.CamundaDecisionSession;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * The expressions need to be supported by Camunda, see {@link ExpressionCorpus}.
+ */
+public class CamundaExpressionBenchmark extends ExpressionBenchmark {
+	@Param({"arithmetic", "string", "list", "context", "date", "large-list", "large-context"})
+	public String expression;
+
+	@Override
+	protected String getEngine() {
+		return ExpressionCorpus.CAMUNDA;
+	}
+
+	@Override
+	protected String getExpression() {
+		return expression;
+	}
+
+	@Override
+	protected Engine createEngine() {
+		return new CamundaDecisionSession()::executeExpression;
+	}
+}
@@ -0,0 +1,27 @@
+package de.materna.jdec.benchmarks;
+
+import de.materna.jdec.DMNDecisionSession;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * The expressions need to be supported by Drools, see {@link ExpressionCorpus}.
+ */
+public class DroolsExpressionBenchmark extends ExpressionBenchmark {
+	@Param({"arithmetic", "string", "list", "context", "date", "temporal", "large-list", "large-context"})
+	public String expression;
+
+	@Override
+	protected String getEngine() {
+		return ExpressionCorpus.DROOLS;
+	}
+
+	@Override
+	protected String getExpression() {
+		return expression;
+	}
+
+	@Override
+	protected Engine createEngine() {
+		return new DMNDecisionSession()::executeExpression;
+	}
+}
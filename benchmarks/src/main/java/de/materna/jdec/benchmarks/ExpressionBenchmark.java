@@ -0,0 +1,55 @@
+package de.materna.jdec.benchmarks;
+
+import de.materna.jdec.model.ExecutionResult;
+import de.materna.jdec.model.ModelImportException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluates the expressions of the {@link ExpressionCorpus} with one of the three FEEL engines.
+ * Every engine has its own subclass that only contains the expressions it can evaluate, so the benchmark doesn't report combinations that fail by design.
+ * The allocation rate is reported if the benchmark is started with the GC profiler: java -jar target/benchmarks.jar ExpressionBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public abstract class ExpressionBenchmark {
+	private Engine session;
+	private ExpressionCorpus.Entry entry;
+
+	@Setup
+	public void setup() throws ModelImportException {
+		entry = ExpressionCorpus.getEntry(getExpression());
+		if (!entry.isSupportedBy(getEngine())) {
+			throw new IllegalArgumentException("The engine " + getEngine() + " can't evaluate the expression " + getExpression() + ", it supports " + ExpressionCorpus.getNames(getEngine()) + ".");
+		}
+
+		session = createEngine();
+
+		// If the engine evaluates an expression of its own list incorrectly, the corpus needs to be corrected.
+		Object result = session.executeExpression(entry.getExpression(), entry.getInputs()).getOutputs().get("main");
+		if (!BenchmarkHelper.matches(entry.getResult(), result)) {
+			throw new IllegalStateException("The engine " + getEngine() + " doesn't evaluate the expression " + getExpression() + " to " + entry.getResult() + ".");
+		}
+	}
+
+	@Benchmark
+	public ExecutionResult executeExpression() throws ModelImportException {
+		return session.executeExpression(entry.getExpression(), entry.getInputs());
+	}
+
+	protected abstract String getEngine();
+
+	protected abstract String getExpression();
+
+	protected abstract Engine createEngine();
+
+	protected interface Engine {
+		ExecutionResult executeExpression(String expression, Map<String, Object> inputs) throws ModelImportException;
+	}
+}
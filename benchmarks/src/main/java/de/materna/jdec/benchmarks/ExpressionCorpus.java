@@ -0,0 +1,136 @@
+package de.materna.jdec.benchmarks;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Expressions that are evaluated by all FEEL engines.
+ * Temporal inputs are passed as strings with the private-use markers of DroolsHelper, so the conversion of the inputs is measured as well.
+ * Every expression contains its expected result, it allows the benchmark to reject engines that can't evaluate it correctly.
+ * The large results measure how fast the engines convert their lists and contexts into java collections.
+ * <p>
+ * Every expression also names the engines that can evaluate it, only these combinations are benchmarked.
+ * jDMN types inputs without a declaration as Any, so it can't apply typed operations and functions to them.
+ */
+public class ExpressionCorpus {
+	public static final String DROOLS = "drools";
+	public static final String GOLDMAN = "goldman";
+	public static final String CAMUNDA = "camunda";
+
+	private static final Map<String, Entry> entries = new LinkedHashMap<>();
+
+	static {
+		Map<String, Object> arithmetic = new HashMap<>();
+		arithmetic.put("a", new BigDecimal("10.5"));
+		arithmetic.put("b", new BigDecimal("32"));
+		entries.put("arithmetic", new Entry("(a + b) * 2 - a / 4", arithmetic, new BigDecimal("82.375"), DROOLS, CAMUNDA));
+
+		Map<String, Object> string = new HashMap<>();
+		string.put("firstName", "Jane");
+		string.put("lastName", "Doe");
+		entries.put("string", new Entry("upper case(firstName) + \" \" + substring(lastName, 1, 2)", string, "JANE Do", DROOLS, CAMUNDA));
+
+		Map<String, Object> list = new HashMap<>();
+		list.put("amounts", Arrays.asList(new BigDecimal("120"), new BigDecimal("80"), new BigDecimal("250"), new BigDecimal("40"), new BigDecimal("175")));
+		entries.put("list", new Entry("sum(amounts[item > 100])", list, new BigDecimal("545"), DROOLS, CAMUNDA));
+
+		Map<String, Object> applicant = new HashMap<>();
+		applicant.put("Name", "Jane Doe");
+		applicant.put("Age", new BigDecimal("42"));
+		Map<String, Object> context = new HashMap<>();
+		context.put("Applicant", applicant);
+		Map<String, Object> contextResult = new HashMap<>();
+		contextResult.put("Name", "Jane Doe");
+		contextResult.put("Adult", true);
+		entries.put("context", new Entry("{ Name: Applicant.Name, Adult: Applicant.Age >= 18 }", context, contextResult, DROOLS, CAMUNDA));
+
+		Map<String, Object> date = new HashMap<>();
+		date.put("Start", "\uE15A2024-01-31");
+		date.put("Term", "\uE15DP30D");
+		entries.put("date", new Entry("Start + Term", date, "\uE15A2024-03-01", DROOLS, CAMUNDA));
+
+		Map<String, Object> temporal = new HashMap<>();
+		temporal.put("Date", "\uE15A2024-02-29");
+		temporal.put("Time", "\uE15B13:45:00");
+		temporal.put("DateTime", "\uE15C2024-02-29T13:45:00");
+		temporal.put("DayTimeDuration", "\uE15DPT1H30M");
+		temporal.put("YearMonthDuration", "\uE15EP1Y2M");
+		// Camunda drops the years and months durations of the inputs.
+		entries.put("temporal", new Entry("[Date + YearMonthDuration, Time + DayTimeDuration, DateTime + DayTimeDuration]", temporal, Arrays.asList("\uE15A2025-04-29", "\uE15B15:15:00", "\uE15C2024-02-29T15:15:00"), DROOLS));
+
+		List<Object> largeListResult = new ArrayList<>();
+		for (int i = 1; i <= 1000; i++) {
+			largeListResult.add(BigDecimal.valueOf(i * 2));
+		}
+		entries.put("large-list", new Entry("for x in 1..1000 return x * 2", Collections.emptyMap(), largeListResult, DROOLS, GOLDMAN, CAMUNDA));
+
+		List<Object> largeContextResult = new ArrayList<>();
+		for (int i = 1; i <= 1000; i++) {
+			Map<String, Object> item = new HashMap<>();
+			item.put("value", BigDecimal.valueOf(i));
+			item.put("values", Arrays.asList(BigDecimal.valueOf(i), BigDecimal.valueOf(i)));
+			largeContextResult.add(item);
+		}
+		// jDMN returns the contexts inside of the list as its own type.
+		entries.put("large-context", new Entry("for x in 1..1000 return {value: x, values: [x, x]}", Collections.emptyMap(), largeContextResult, DROOLS, CAMUNDA));
+	}
+
+	/**
+	 * Returns the names of the expressions that can be evaluated by the engine.
+	 */
+	public static List<String> getNames(String engine) {
+		List<String> names = new ArrayList<>();
+		for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+			if (entry.getValue().isSupportedBy(engine)) {
+				names.add(entry.getKey());
+			}
+		}
+		return names;
+	}
+
+	public static Entry getEntry(String name) {
+		Entry entry = entries.get(name);
+		if (entry == null) {
+			throw new IllegalArgumentException("The corpus doesn't contain an expression named " + name + ".");
+		}
+		return entry;
+	}
+
+	public static class Entry {
+		private String expression;
+		private Map<String, Object> inputs;
+		private Object result;
+		private Set<String> engines;
+
+		public Entry(String expression, Map<String, Object> inputs, Object result, String... engines) {
+			this.expression = expression;
+			this.inputs = inputs;
+			this.result = result;
+			this.engines = new HashSet<>(Arrays.asList(engines));
+		}
+
+		public String getExpression() {
+			return expression;
+		}
+
+		public Map<String, Object> getInputs() {
+			return inputs;
+		}
+
+		public Object getResult() {
+			return result;
+		}
+
+		public boolean isSupportedBy(String engine) {
+			return engines.contains(engine);
+		}
+	}
+}
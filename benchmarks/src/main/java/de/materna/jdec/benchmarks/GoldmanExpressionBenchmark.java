@@ -0,0 +1,27 @@
+package de.materna.jdec.benchmarks;
+
+import de.materna.jdec.GoldmanDecisionSession;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * The expressions need to be supported by jDMN, see {@link ExpressionCorpus}.
+ */
+public class GoldmanExpressionBenchmark extends ExpressionBenchmark {
+	@Param({"large-list"})
+	public String expression;
+
+	@Override
+	protected String getEngine() {
+		return ExpressionCorpus.GOLDMAN;
+	}
+
+	@Override
+	protected String getExpression() {
+		return expression;
+	}
+
+	@Override
+	protected Engine createEngine() {
+		return new GoldmanDecisionSession()::executeExpression;
+	}
+}
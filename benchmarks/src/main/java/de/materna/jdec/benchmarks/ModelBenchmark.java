@@ -0,0 +1,93 @@
+package de.materna.jdec.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import de.materna.jdec.DMNDecisionSession;
+import de.materna.jdec.model.ExecutionResult;
+import de.materna.jdec.model.Message;
+import de.materna.jdec.model.ModelImportException;
+import de.materna.jdec.model.ModelNotFoundException;
+import de.materna.jdec.serialization.SerializationHelper;
+import org.apache.commons.io.IOUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executes the models of the {@link ModelScenarios} with DMNDecisionSession.
+ * The results should be written to the directory results, so they can be compared with the results of previous releases:
+ * java -jar target/benchmarks.jar ModelBenchmark -prof gc -rf json -rff results/VERSION.json
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ModelBenchmark {
+	@Param({"lending", "decision-service", "import", "parent", "parent-service", "remote", "access"})
+	public String scenario;
+
+	@Param({"false", "true"})
+	public boolean debug;
+
+	/**
+	 * The POJO is converted by executeModel, the map and the JSON document are converted once during the setup.
+	 */
+	@Param({"map", "pojo", "json"})
+	public String input;
+
+	private DMNDecisionSession decisionSession;
+	private ModelScenarios.Scenario modelScenario;
+	private Map<String, Object> mapInput;
+	private byte[] jsonInput;
+
+	@Setup
+	public void setup() throws IOException, ModelImportException, ModelNotFoundException {
+		modelScenario = ModelScenarios.getScenario(scenario);
+
+		decisionSession = new DMNDecisionSession();
+
+		Map<String, String> models = new LinkedHashMap<>();
+		for (ModelScenarios.Model model : modelScenario.getModels()) {
+			try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream(model.getPath())) {
+				if (inputStream == null) {
+					throw new IOException("The model " + model.getPath() + " could not be found.");
+				}
+				models.put(model.getNamespace(), IOUtils.toString(inputStream, StandardCharsets.UTF_8));
+			}
+		}
+		decisionSession.importModels(models);
+
+		mapInput = SerializationHelper.getInstance().getJSONMapper().convertValue(modelScenario.getInput(), new TypeReference<Map<String, Object>>() {
+		});
+		jsonInput = SerializationHelper.getInstance().getJSONMapper().writeValueAsBytes(modelScenario.getInput());
+
+		// If the execution fails, the benchmark would only measure the error handling.
+		ExecutionResult executionResult = executeModel();
+		for (Message message : executionResult.getMessages()) {
+			if (message.getLevel() == Message.Level.ERROR) {
+				throw new IllegalStateException("The scenario " + scenario + " reports an error: " + message.getText());
+			}
+		}
+		Object result = executionResult.getOutputs().get(modelScenario.getDecision());
+		if (!BenchmarkHelper.matches(modelScenario.getResult(), result)) {
+			throw new IllegalStateException("The scenario " + scenario + " returns " + result + " instead of " + modelScenario.getResult() + ".");
+		}
+	}
+
+	@Benchmark
+	public ExecutionResult executeModel() throws IOException {
+		if (input.equals("pojo")) {
+			return decisionSession.executeModel(modelScenario.getNamespace(), modelScenario.getDecisionServiceName(), modelScenario.getInput(), debug);
+		}
+		if (input.equals("json")) {
+			return decisionSession.executeModel(modelScenario.getNamespace(), modelScenario.getDecisionServiceName(), jsonInput, debug);
+		}
+		return decisionSession.executeModel(modelScenario.getNamespace(), modelScenario.getDecisionServiceName(), mapInput, debug);
+	}
+}
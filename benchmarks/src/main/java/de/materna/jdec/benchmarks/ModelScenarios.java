@@ -0,0 +1,134 @@
+package de.materna.jdec.benchmarks;
+
+import de.materna.jdec.benchmarks.entities.*;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Models of the test resources that are executed by the {@link ModelBenchmark}.
+ * Every scenario contains the expected result of one decision, it allows the benchmark to reject executions that fail.
+ */
+public class ModelScenarios {
+	private static final Map<String, Scenario> scenarios = new LinkedHashMap<>();
+
+	static {
+		LendingForm lendingForm = new LendingForm(
+				new LendingForm.ApplicantData(40, "M", "EMPLOYED", false, new LendingForm.Monthly(new BigDecimal("6000"), new BigDecimal("0"), new BigDecimal("2000"))),
+				new LendingForm.BureauData(false, 649),
+				new LendingForm.RequestedProduct("STANDARD LOAN", new BigDecimal("0.08"), 36, new BigDecimal("100000")),
+				"YES"
+		);
+		scenarios.put("lending", new Scenario(Collections.singletonList(new Model("http://www.trisotech.com/definitions/_4e0f0b70-d31c-471c-bd52-5ca709ed362b", "tck/0004-lending.dmn")), null, lendingForm, "Adjudication", "ACCEPT"));
+
+		// The model also contains decision services that are invoked incorrectly on purpose, so only one of them is executed.
+		List<Model> decisionServiceModels = Collections.singletonList(new Model("http://www.montera.com.au/spec/DMN/0085-decision-services", "tck/0085-decision-services.dmn"));
+		scenarios.put("decision-service", new Scenario(decisionServiceModels, "decisionService_003", new DecisionServiceForm("B", "C", "D"), "decision_003", "A B C D"));
+
+		List<Model> importModels = Arrays.asList(
+				new Model("http://www.trisotech.com/definitions/_f27bb64b-6fc7-4e1f-9848-11ba35e0df36", "tck/Imported_Model.dmn"),
+				new Model("http://www.trisotech.com/definitions/_c3e08836-7973-4e4d-af2b-d46b23725c13", "tck/0086-import.dmn")
+		);
+		scenarios.put("import", new Scenario(importModels, null, new ImportForm(new ImportForm.Person("John Doe", 47)), "A Decision Ctx with DT", "Respectfully, Hello John Doe!"));
+
+		List<Model> parentModels = Arrays.asList(
+				new Model("importchildchild", "parent/importchildchild.dmn"),
+				new Model("importchild", "parent/importchild.dmn"),
+				new Model("importparent", "parent/importparent.dmn")
+		);
+		ParentForm.ChildChildForm childChildForm = new ParentForm.ChildChildForm(1);
+		ParentForm parentForm = new ParentForm(1, new ParentForm.ChildForm(1, childChildForm), childChildForm);
+		scenarios.put("parent", new Scenario(parentModels, null, parentForm, "ParentDecision", new BigDecimal("4")));
+		scenarios.put("parent-service", new Scenario(parentModels, "onlyparent", parentForm, "ParentDecision", new BigDecimal("4")));
+
+		// remote_main calls an external service, so only the model that it would call is executed.
+		List<Model> remoteModels = Arrays.asList(
+				new Model("remote_interface", "remote/remote_interface.dmn"),
+				new Model("remote_util", "remote/remote_util.dmn"),
+				new Model("remote_main", "remote/remote_main.dmn")
+		);
+		scenarios.put("remote", new Scenario(remoteModels, "remote_interface", null, new RemoteForm(new RemoteForm.Person("John Doe", 47)), "RemoteDecision", "Name: John Doe, Age: 47"));
+
+		// The model doesn't have any inputs, an empty bean can't be converted by Jackson.
+		scenarios.put("access", new Scenario(Collections.singletonList(new Model("access", "access.dmn")), null, Collections.emptyMap(), "ThirdDecision", new BigDecimal("8")));
+	}
+
+	public static Scenario getScenario(String name) {
+		Scenario scenario = scenarios.get(name);
+		if (scenario == null) {
+			throw new IllegalArgumentException("There is no scenario named " + name + ".");
+		}
+		return scenario;
+	}
+
+	public static class Model {
+		private String namespace;
+		private String path;
+
+		public Model(String namespace, String path) {
+			this.namespace = namespace;
+			this.path = path;
+		}
+
+		public String getNamespace() {
+			return namespace;
+		}
+
+		public String getPath() {
+			return path;
+		}
+	}
+
+	public static class Scenario {
+		private List<Model> models;
+		private String namespace;
+		private String decisionServiceName;
+		private Object input;
+		private String decision;
+		private Object result;
+
+		/**
+		 * The last model is executed.
+		 */
+		public Scenario(List<Model> models, String decisionServiceName, Object input, String decision, Object result) {
+			this(models, models.get(models.size() - 1).getNamespace(), decisionServiceName, input, decision, result);
+		}
+
+		public Scenario(List<Model> models, String namespace, String decisionServiceName, Object input, String decision, Object result) {
+			this.models = models;
+			this.namespace = namespace;
+			this.decisionServiceName = decisionServiceName;
+			this.input = input;
+			this.decision = decision;
+			this.result = result;
+		}
+
+		public List<Model> getModels() {
+			return models;
+		}
+
+		public String getNamespace() {
+			return namespace;
+		}
+
+		public String getDecisionServiceName() {
+			return decisionServiceName;
+		}
+
+		public Object getInput() {
+			return input;
+		}
+
+		public String getDecision() {
+			return decision;
+		}
+
+		public Object getResult() {
+			return result;
+		}
+	}
+}
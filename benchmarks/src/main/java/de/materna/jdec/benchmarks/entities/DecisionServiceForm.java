@@ -0,0 +1,33 @@
+package de.materna.jdec.benchmarks.entities;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Inputs of decisionService_003 in the TCK model 0085-decision-services.
+ */
+public class DecisionServiceForm {
+	@JsonProperty("decision_003_input_1")
+	private String firstDecision;
+	@JsonProperty("decision_003_input_2")
+	private String secondDecision;
+	@JsonProperty("inputData_003")
+	private String inputData;
+
+	public DecisionServiceForm(String firstDecision, String secondDecision, String inputData) {
+		this.firstDecision = firstDecision;
+		this.secondDecision = secondDecision;
+		this.inputData = inputData;
+	}
+
+	public String getFirstDecision() {
+		return firstDecision;
+	}
+
+	public String getSecondDecision() {
+		return secondDecision;
+	}
+
+	public String getInputData() {
+		return inputData;
+	}
+}
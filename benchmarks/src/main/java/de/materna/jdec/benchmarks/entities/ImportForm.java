@@ -0,0 +1,39 @@
+package de.materna.jdec.benchmarks.entities;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Inputs of the TCK model 0086-import.
+ */
+public class ImportForm {
+	@JsonProperty("A Person")
+	private Person person;
+
+	public ImportForm(Person person) {
+		this.person = person;
+	}
+
+	public Person getPerson() {
+		return person;
+	}
+
+	public static class Person {
+		@JsonProperty("name")
+		private String name;
+		@JsonProperty("age")
+		private int age;
+
+		public Person(String name, int age) {
+			this.name = name;
+			this.age = age;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public int getAge() {
+			return age;
+		}
+	}
+}
@@ -0,0 +1,164 @@
+package de.materna.jdec.benchmarks.entities;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+
+/**
+ * Inputs of the TCK model 0004-lending.
+ */
+public class LendingForm {
+	@JsonProperty("ApplicantData")
+	private ApplicantData applicantData;
+	@JsonProperty("BureauData")
+	private BureauData bureauData;
+	@JsonProperty("RequestedProduct")
+	private RequestedProduct requestedProduct;
+	@JsonProperty("SupportingDocuments")
+	private String supportingDocuments;
+
+	public LendingForm(ApplicantData applicantData, BureauData bureauData, RequestedProduct requestedProduct, String supportingDocuments) {
+		this.applicantData = applicantData;
+		this.bureauData = bureauData;
+		this.requestedProduct = requestedProduct;
+		this.supportingDocuments = supportingDocuments;
+	}
+
+	public ApplicantData getApplicantData() {
+		return applicantData;
+	}
+
+	public BureauData getBureauData() {
+		return bureauData;
+	}
+
+	public RequestedProduct getRequestedProduct() {
+		return requestedProduct;
+	}
+
+	public String getSupportingDocuments() {
+		return supportingDocuments;
+	}
+
+	public static class ApplicantData {
+		@JsonProperty("Age")
+		private int age;
+		@JsonProperty("MaritalStatus")
+		private String maritalStatus;
+		@JsonProperty("EmploymentStatus")
+		private String employmentStatus;
+		@JsonProperty("ExistingCustomer")
+		private boolean existingCustomer;
+		@JsonProperty("Monthly")
+		private Monthly monthly;
+
+		public ApplicantData(int age, String maritalStatus, String employmentStatus, boolean existingCustomer, Monthly monthly) {
+			this.age = age;
+			this.maritalStatus = maritalStatus;
+			this.employmentStatus = employmentStatus;
+			this.existingCustomer = existingCustomer;
+			this.monthly = monthly;
+		}
+
+		public int getAge() {
+			return age;
+		}
+
+		public String getMaritalStatus() {
+			return maritalStatus;
+		}
+
+		public String getEmploymentStatus() {
+			return employmentStatus;
+		}
+
+		public boolean isExistingCustomer() {
+			return existingCustomer;
+		}
+
+		public Monthly getMonthly() {
+			return monthly;
+		}
+	}
+
+	public static class Monthly {
+		@JsonProperty("Income")
+		private BigDecimal income;
+		@JsonProperty("Repayments")
+		private BigDecimal repayments;
+		@JsonProperty("Expenses")
+		private BigDecimal expenses;
+
+		public Monthly(BigDecimal income, BigDecimal repayments, BigDecimal expenses) {
+			this.income = income;
+			this.repayments = repayments;
+			this.expenses = expenses;
+		}
+
+		public BigDecimal getIncome() {
+			return income;
+		}
+
+		public BigDecimal getRepayments() {
+			return repayments;
+		}
+
+		public BigDecimal getExpenses() {
+			return expenses;
+		}
+	}
+
+	public static class BureauData {
+		@JsonProperty("Bankrupt")
+		private boolean bankrupt;
+		@JsonProperty("CreditScore")
+		private int creditScore;
+
+		public BureauData(boolean bankrupt, int creditScore) {
+			this.bankrupt = bankrupt;
+			this.creditScore = creditScore;
+		}
+
+		public boolean isBankrupt() {
+			return bankrupt;
+		}
+
+		public int getCreditScore() {
+			return creditScore;
+		}
+	}
+
+	public static class RequestedProduct {
+		@JsonProperty("ProductType")
+		private String productType;
+		@JsonProperty("Rate")
+		private BigDecimal rate;
+		@JsonProperty("Term")
+		private int term;
+		@JsonProperty("Amount")
+		private BigDecimal amount;
+
+		public RequestedProduct(String productType, BigDecimal rate, int term, BigDecimal amount) {
+			this.productType = productType;
+			this.rate = rate;
+			this.term = term;
+			this.amount = amount;
+		}
+
+		public String getProductType() {
+			return productType;
+		}
+
+		public BigDecimal getRate() {
+			return rate;
+		}
+
+		public int getTerm() {
+			return term;
+		}
+
+		public BigDecimal getAmount() {
+			return amount;
+		}
+	}
+}
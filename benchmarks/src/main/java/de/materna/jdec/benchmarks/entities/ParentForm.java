@@ -0,0 +1,66 @@
+package de.materna.jdec.benchmarks.entities;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Inputs of the model importparent, the inputs of the imported models are nested by their model name.
+ */
+public class ParentForm {
+	@JsonProperty("ParentInput")
+	private int parentInput;
+	@JsonProperty("importchild")
+	private ChildForm child;
+	@JsonProperty("importchildchild")
+	private ChildChildForm childChild;
+
+	public ParentForm(int parentInput, ChildForm child, ChildChildForm childChild) {
+		this.parentInput = parentInput;
+		this.child = child;
+		this.childChild = childChild;
+	}
+
+	public int getParentInput() {
+		return parentInput;
+	}
+
+	public ChildForm getChild() {
+		return child;
+	}
+
+	public ChildChildForm getChildChild() {
+		return childChild;
+	}
+
+	public static class ChildForm {
+		@JsonProperty("ChildInput")
+		private int childInput;
+		@JsonProperty("importchildchild")
+		private ChildChildForm childChild;
+
+		public ChildForm(int childInput, ChildChildForm childChild) {
+			this.childInput = childInput;
+			this.childChild = childChild;
+		}
+
+		public int getChildInput() {
+			return childInput;
+		}
+
+		public ChildChildForm getChildChild() {
+			return childChild;
+		}
+	}
+
+	public static class ChildChildForm {
+		@JsonProperty("ChildChildInput")
+		private int childChildInput;
+
+		public ChildChildForm(int childChildInput) {
+			this.childChildInput = childChildInput;
+		}
+
+		public int getChildChildInput() {
+			return childChildInput;
+		}
+	}
+}
@@ -0,0 +1,39 @@
+package de.materna.jdec.benchmarks.entities;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Inputs of the model remote_interface.
+ */
+public class RemoteForm {
+	@JsonProperty("RemotePerson")
+	private Person person;
+
+	public RemoteForm(Person person) {
+		this.person = person;
+	}
+
+	public Person getPerson() {
+		return person;
+	}
+
+	public static class Person {
+		@JsonProperty("Name")
+		private String name;
+		@JsonProperty("Age")
+		private int age;
+
+		public Person(String name, int age) {
+			this.name = name;
+			this.age = age;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public int getAge() {
+			return age;
+		}
+	}
+}
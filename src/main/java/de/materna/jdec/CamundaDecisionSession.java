@@ -6,52 +6,124 @@ import de.materna.jdec.model.ImportResult;
 import de.materna.jdec.model.Message;
 import de.materna.jdec.model.ModelImportException;
 import org.camunda.feel.FeelEngine;
+import org.camunda.feel.context.VariableProvider;
 import org.camunda.feel.impl.SpiServiceLoader;
+import org.camunda.feel.syntaxtree.ParsedExpression;
+import org.camunda.feel.syntaxtree.Val;
+import org.camunda.feel.syntaxtree.ValContext;
+import org.camunda.feel.syntaxtree.ValList;
+import org.camunda.feel.valuemapper.CustomValueMapper;
+import org.camunda.feel.valuemapper.JavaCustomValueMapper;
+import org.camunda.feel.valuemapper.ValueMapper;
 import scala.collection.JavaConverters;
 import scala.util.Either;
 
 import java.util.*;
+import java.util.function.Function;
 
+/**
+ * Expressions are parsed once and kept by their text, so recurring expressions are only evaluated.
+ */
 public class CamundaDecisionSession {
+	private static final int EXPRESSION_CACHE_SIZE = 1000;
+
 	private FeelEngine engine;
+	private Map<String, ParsedExpression> expressions;
 
 	public CamundaDecisionSession() {
-		engine = new FeelEngine.Builder().valueMapper(SpiServiceLoader.loadValueMapper()).functionProvider(SpiServiceLoader.loadFunctionProvider()).build();
+		// The value mappers that are registered through SPI come first, so they take precedence over ours if they have the same priority.
+		// Our value mapper has a higher priority than the default one, which is added by the composite, so it handles lists and contexts.
+		List<CustomValueMapper> valueMappers = new ArrayList<>();
+		ValueMapper spiValueMapper = SpiServiceLoader.loadValueMapper();
+		if (spiValueMapper instanceof ValueMapper.CompositeValueMapper) {
+			valueMappers.addAll(JavaConverters.seqAsJavaList(((ValueMapper.CompositeValueMapper) spiValueMapper).customMappers()));
+		}
+		valueMappers.add(new JavaValueMapper());
+		ValueMapper valueMapper = new ValueMapper.CompositeValueMapper(JavaConverters.asScala(valueMappers).toList());
+
+		engine = new FeelEngine.Builder().valueMapper(valueMapper).functionProvider(SpiServiceLoader.loadFunctionProvider()).build();
+
+		// The map is ordered by access, so the least recently used expression is removed first.
+		expressions = new LinkedHashMap<String, ParsedExpression>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, ParsedExpression> eldest) {
+				return size() > EXPRESSION_CACHE_SIZE;
+			}
+		};
 	}
 
 	public ExecutionResult executeExpression(String expression, Map<String, Object> inputs) throws ModelImportException {
-		Either<FeelEngine.Failure, Object> failureObjectEither = engine.evalExpression(expression, (Map<String, Object>) DroolsHelper.enrichInput(inputs));
+		Either<FeelEngine.Failure, Object> failureObjectEither = engine.eval(parseExpression(expression), (Map<String, Object>) DroolsHelper.enrichInput(inputs));
 		if (failureObjectEither.isLeft()) {
 			throw new ModelImportException(new ImportResult(Collections.singletonList(new Message(failureObjectEither.left().get().message(), Message.Level.ERROR))));
 		}
 
 		HashMap<String, Object> decisions = new LinkedHashMap<>();
-		decisions.put("main", DroolsHelper.cleanOutput(convertContext(failureObjectEither.right().get())));
+		decisions.put("main", DroolsHelper.cleanOutput(failureObjectEither.right().get()));
 
 		return new ExecutionResult(decisions, null, Collections.emptyList());
 	}
 
-	private static Object convertContext(Object value) {
-		if (value instanceof scala.collection.Map) {
-			Map<String, Object> convertedContext = new HashMap<>();
-
-			Map<String, Object> context = JavaConverters.asJava((scala.collection.Map) value);
-			for (Map.Entry<String, Object> entry : context.entrySet()) {
-				convertedContext.put(entry.getKey(), convertContext(entry.getValue()));
+	private ParsedExpression parseExpression(String expression) throws ModelImportException {
+		synchronized (expressions) {
+			ParsedExpression parsedExpression = expressions.get(expression);
+			if (parsedExpression != null) {
+				return parsedExpression;
 			}
+		}
+
+		// Expressions that can't be parsed are not kept.
+		Either<FeelEngine.Failure, ParsedExpression> failureParsedExpressionEither = engine.parseExpression(expression);
+		if (failureParsedExpressionEither.isLeft()) {
+			throw new ModelImportException(new ImportResult(Collections.singletonList(new Message(failureParsedExpressionEither.left().get().message(), Message.Level.ERROR))));
+		}
 
-			return convertedContext;
+		ParsedExpression parsedExpression = failureParsedExpressionEither.right().get();
+		synchronized (expressions) {
+			expressions.put(expression, parsedExpression);
 		}
-		if (value instanceof scala.collection.immutable.List) {
-			List<Object> convertedContext = new ArrayList<>();
+		return parsedExpression;
+	}
+
+	/**
+	 * The default value mapper returns scala collections, which would need to be copied into java collections afterwards.
+	 * This mapper creates java collections directly.
+	 */
+	private static class JavaValueMapper extends JavaCustomValueMapper {
+		@Override
+		public Optional<Val> toValue(Object value, Function<Object, Val> innerValueMapper) {
+			return Optional.empty();
+		}
+
+		@Override
+		public Optional<Object> unpackValue(Val value, Function<Val, Object> innerValueMapper) {
+			if (value instanceof ValList) {
+				scala.collection.immutable.List<Val> items = ((ValList) value).items();
+
+				List<Object> list = new ArrayList<>(items.size());
+				scala.collection.Iterator<Val> iterator = items.iterator();
+				while (iterator.hasNext()) {
+					list.add(innerValueMapper.apply(iterator.next()));
+				}
+				return Optional.of(list);
+			}
+
+			if (value instanceof ValContext) {
+				VariableProvider variableProvider = ((ValContext) value).context().variableProvider();
+
+				Map<String, Object> context = new HashMap<>();
+				scala.collection.Iterator<String> iterator = variableProvider.keys().iterator();
+				while (iterator.hasNext()) {
+					String key = iterator.next();
 
-			List<Object> context = JavaConverters.asJava((scala.collection.immutable.List) value);
-			for (Object entry : context) {
-				convertedContext.add(convertContext(entry));
+					// The values of a context can either be values of the engine or java objects.
+					Object entry = variableProvider.getVariable(key).get();
+					context.put(key, entry instanceof Val ? innerValueMapper.apply((Val) entry) : entry);
+				}
+				return Optional.of(context);
 			}
 
-			return convertedContext;
+			return Optional.empty();
 		}
-		return value;
 	}
 }
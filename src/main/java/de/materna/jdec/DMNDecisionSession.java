@@ -1,10 +1,24 @@
 package de.materna.jdec;
 
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.JsonGenerator;
 import de.materna.jdec.dmn.DroolsAnalyzer;
 import de.materna.jdec.dmn.DroolsDebugger;
+import de.materna.jdec.dmn.DroolsDispatcher;
+import de.materna.jdec.dmn.DroolsExpressionEvaluator;
 import de.materna.jdec.dmn.DroolsHelper;
+import de.materna.jdec.dmn.DroolsHistogram;
+import de.materna.jdec.dmn.DroolsIndex;
+import de.materna.jdec.dmn.DroolsInputReader;
+import de.materna.jdec.dmn.DroolsLatencies;
 import de.materna.jdec.dmn.DroolsListener;
+import de.materna.jdec.dmn.DroolsMemoryTraceSink;
+import de.materna.jdec.dmn.DroolsPool;
+import de.materna.jdec.dmn.DroolsResultWriter;
+import de.materna.jdec.dmn.DroolsSampler;
+import de.materna.jdec.dmn.DroolsSnapshot;
+import de.materna.jdec.dmn.DroolsTimer;
+import de.materna.jdec.dmn.DroolsTraceLimits;
+import de.materna.jdec.dmn.DroolsTraceSink;
 import de.materna.jdec.model.*;
 import de.materna.jdec.serialization.SerializationHelper;
 import org.apache.commons.codec.digest.DigestUtils;
@@ -13,16 +27,13 @@ import org.kie.api.builder.KieBuilder;
 import org.kie.api.builder.KieFileSystem;
 import org.kie.api.builder.ReleaseId;
 import org.kie.api.runtime.KieContainer;
-import org.kie.api.runtime.KieSession;
 import org.kie.dmn.api.core.DMNContext;
 import org.kie.dmn.api.core.DMNDecisionResult;
 import org.kie.dmn.api.core.DMNModel;
 import org.kie.dmn.api.core.DMNRuntime;
 import org.kie.dmn.api.core.ast.DecisionServiceNode;
+import org.kie.dmn.core.api.DMNFactory;
 import org.kie.dmn.core.impl.DMNMessageImpl;
-import org.kie.dmn.feel.FEEL;
-import org.kie.dmn.feel.lang.FEELProfile;
-import org.kie.dmn.feel.parser.feel11.profiles.KieExtendedFEELProfile;
 import org.kie.dmn.model.api.DMNElement;
 import org.kie.dmn.model.api.DMNElementReference;
 import org.kie.dmn.model.api.DMNModelInstrumentedBase;
@@ -32,10 +43,34 @@ import org.kie.internal.builder.InternalKieBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
+/**
+ * Executions are thread-safe: executeModel can be called from many threads in parallel on the same session.
+ * Every execution only receives the messages and the trace of its own evaluation, see {@link DroolsDispatcher}.
+ * The events of an evaluation are collected without any monitors, so executions can also run on virtual threads.
+ * <p>
+ * Imports are serialized. They compile the models into a new {@link DroolsSnapshot} that replaces the current one atomically,
+ * so executions never wait for an import and the running ones finish on the snapshot they've started with.
+ * <p>
+ * Inputs and outputs are only copied if they need to be converted, see {@link DroolsHelper#enrichInput(Object)} and {@link DroolsHelper#cleanOutput(Object)}.
+ * The context of an execution can share maps and lists with the given inputs and the outputs of an {@link ExecutionResult} can share them with the results of Drools.
+ * Therefore, the inputs must not be modified during an execution and the outputs must not be modified at all, they need to be copied first.
+ * The contexts of the access log are read-only, see {@link DroolsMemoryTraceSink}.
+ */
 public class DMNDecisionSession implements DecisionSession {
 	private static final Logger log = LoggerFactory.getLogger(DMNDecisionSession.class);
 
@@ -43,15 +78,33 @@ public class DMNDecisionSession implements DecisionSession {
 	public KieFileSystem kieFileSystem;
 	private ReleaseId kieReleaseId;
 	private KieBuilder kieBuilder;
-	private KieSession kieSession;
-	private KieContainer kieContainer;
-	private DMNRuntime kieRuntime;
+	private final AtomicReference<DroolsSnapshot> kieSnapshot = new AtomicReference<>();
 	private Set<org.kie.api.builder.Message> kieMessages;
+	private DroolsDispatcher dispatcher = new DroolsDispatcher();
+	private int poolSize;
+	private DroolsExpressionEvaluator expressionEvaluator = new DroolsExpressionEvaluator(1000);
+	private volatile Sampling sampling;
+	private volatile DroolsTraceLimits traceLimits = DroolsTraceLimits.UNLIMITED;
+	private DroolsLatencies latencies = new DroolsLatencies();
+	private DroolsTimer timer = new DroolsTimer(latencies);
 
 	/**
 	 * Creates a KieFileSystem to load decision models dynamically.
+	 * The session contains a single runtime, so parallel executions wait for each other.
 	 */
 	public DMNDecisionSession() {
+		this(1);
+	}
+
+	/**
+	 * Creates a KieFileSystem to load decision models dynamically.
+	 * Every runtime holds its own KieSession, so the memory that is needed for the compiled models grows with the pool size.
+	 *
+	 * @param poolSize Number of runtimes that can be used for parallel executions, for example the number of available processors.
+	 */
+	public DMNDecisionSession(int poolSize) {
+		this.poolSize = poolSize;
+
 		kieServices = KieServices.Factory.get();
 
 		kieFileSystem = kieServices.newKieFileSystem();
@@ -70,7 +123,7 @@ public class DMNDecisionSession implements DecisionSession {
 
 	@Override
 	public List<Model> getModels() {
-		return kieRuntime.getModels().stream().map(model -> {
+		return kieSnapshot.get().getIndex().getModels().stream().map(model -> {
 			try {
 				return getModel(model.getNamespace());
 			}
@@ -82,7 +135,7 @@ public class DMNDecisionSession implements DecisionSession {
 
 	@Override
 	public Model getModel(String namespace) throws ModelNotFoundException {
-		DMNModel model = DroolsHelper.getModel(kieRuntime, namespace);
+		DMNModel model = kieSnapshot.get().getIndex().getModel(namespace);
 		byte[] source = kieFileSystem.read(getPath(namespace));
 
 		return new Model(
@@ -101,7 +154,7 @@ public class DMNDecisionSession implements DecisionSession {
 	 * @return Warnings that occurred during compilation.
 	 */
 	@Override
-	public ImportResult importModel(String namespace, String model) throws ModelImportException {
+	public synchronized ImportResult importModel(String namespace, String model) throws ModelImportException {
 		String path = getPath(namespace);
 
 		// We want to check if the model has changed.
@@ -120,26 +173,35 @@ public class DMNDecisionSession implements DecisionSession {
 		try {
 			IncrementalResults results = ((InternalKieBuilder) kieBuilder).incrementalBuild();
 
-			compileModels();
-
 			kieMessages.removeIf(new HashSet<>(results.getRemovedMessages())::contains);
 			kieMessages.addAll(results.getAddedMessages());
 
 			List<Message> messages = convertMessages(kieMessages);
 			if (messages.stream().anyMatch(message -> message.getLevel() == Message.Level.ERROR)) {
-				// Before we can throw the exception, we need to undo the import:
-
-				// 1. We need to reset the kie messages.
+				// Before we can throw the exception, we need to undo the import.
+				// The model hasn't been compiled yet, so the invalid version is never executed.
 				kieMessages.removeIf(new HashSet<>(results.getAddedMessages())::contains);
 				kieMessages.addAll(results.getRemovedMessages());
 
-				// 2. We need to delete the model from the file system.
-				deleteModel(namespace);
+				kieFileSystem.delete(path);
+				IncrementalResults deleteResults = ((InternalKieBuilder) kieBuilder).incrementalBuild();
+
+				kieMessages.removeIf(new HashSet<>(deleteResults.getRemovedMessages())::contains);
+				kieMessages.addAll(deleteResults.getAddedMessages());
+
+				if (currentModel != null) {
+					// Like before, a model whose new version is invalid is removed, so the current snapshot needs to be replaced.
+					compileModels();
+					latencies.reset(namespace);
+				}
 
-				// 3. Now we can throw the exception.
 				throw new ModelImportException(new ImportResult(messages));
 			}
 
+			compileModels();
+			// The durations of the previous version don't tell anything about the new one.
+			latencies.reset(namespace);
+
 			return new ImportResult(messages);
 		}
 		catch (Exception exception) {
@@ -161,8 +223,91 @@ public class DMNDecisionSession implements DecisionSession {
 		}
 	}
 
+	/**
+	 * Writes all decision models into the file system before they are compiled at once.
+	 * If any model contains an error, none of the models are imported.
+	 *
+	 * @return Warnings that occurred during compilation, grouped by the namespace of the model.
+	 */
+	@Override
+	public synchronized Map<String, ImportResult> importModels(Map<String, String> models) throws ModelImportException {
+		// We remember the current models, so we can undo the import.
+		Map<String, byte[]> previousModels = new LinkedHashMap<>();
+		List<String> changedNamespaces = new ArrayList<>();
+		for (Map.Entry<String, String> entry : models.entrySet()) {
+			String path = getPath(entry.getKey());
+
+			byte[] currentModel = kieFileSystem.read(path);
+			if (currentModel != null && new String(currentModel, StandardCharsets.UTF_8).equals(entry.getValue())) {
+				// The model has not changed. We don't need to write it.
+				continue;
+			}
+
+			previousModels.put(path, currentModel);
+			changedNamespaces.add(entry.getKey());
+			kieFileSystem.write(path, entry.getValue());
+		}
+
+		if (previousModels.isEmpty()) {
+			// None of the models have changed. We don't need to recompile.
+			return groupMessages(models.keySet());
+		}
+
+		try {
+			Set<org.kie.api.builder.Message> previousMessages = new HashSet<>(kieMessages);
+
+			IncrementalResults results = ((InternalKieBuilder) kieBuilder).incrementalBuild();
+
+			kieMessages.removeIf(new HashSet<>(results.getRemovedMessages())::contains);
+			kieMessages.addAll(results.getAddedMessages());
+
+			List<Message> messages = convertMessages(kieMessages);
+			if (messages.stream().anyMatch(message -> message.getLevel() == Message.Level.ERROR)) {
+				// Before we can throw the exception, we need to undo the import.
+				// The models haven't been compiled yet, so the current snapshot is still valid.
+				for (Map.Entry<String, byte[]> entry : previousModels.entrySet()) {
+					if (entry.getValue() == null) {
+						kieFileSystem.delete(entry.getKey());
+					}
+					else {
+						kieFileSystem.write(entry.getKey(), entry.getValue());
+					}
+				}
+				((InternalKieBuilder) kieBuilder).incrementalBuild();
+
+				kieMessages = previousMessages;
+
+				throw new ModelImportException(new ImportResult(messages));
+			}
+
+			compileModels();
+			for (String namespace : changedNamespaces) {
+				latencies.reset(namespace);
+			}
+
+			return groupMessages(models.keySet());
+		}
+		catch (Exception exception) {
+			if (exception instanceof ModelImportException) {
+				// This is a known exception. We can throw it directly.
+				throw (ModelImportException) exception;
+			}
+
+			// If we panic, we don't care about the messages from the compilation.
+			// We only care about the exception message.
+			List<Message> messages;
+			if (exception.getMessage() == null) {
+				messages = Collections.singletonList(new Message("An unknown error has occurred in Drools. Please refer to the logs for further information.", Message.Level.ERROR));
+			}
+			else {
+				messages = Collections.singletonList(new Message(exception.getMessage(), Message.Level.ERROR));
+			}
+			throw new ModelImportException(new ImportResult(messages));
+		}
+	}
+
 	@Override
-	public ImportResult deleteModel(String namespace) throws ModelImportException {
+	public synchronized ImportResult deleteModel(String namespace) throws ModelImportException {
 		kieFileSystem.delete(getPath(namespace));
 
 		try {
@@ -172,6 +317,7 @@ public class DMNDecisionSession implements DecisionSession {
 			kieMessages.addAll(results.getAddedMessages());
 
 			compileModels();
+			latencies.reset(namespace);
 
 			List<Message> messages = convertMessages(kieMessages);
 			if (messages.stream().anyMatch(message -> message.getLevel() == Message.Level.ERROR)) {
@@ -210,7 +356,7 @@ public class DMNDecisionSession implements DecisionSession {
 	}
 
 	public ExecutionResult executeModel(String namespace, Map<String, Object> inputs, boolean debug) throws ModelNotFoundException {
-		return executeModel(DroolsHelper.getModel(kieRuntime, namespace), null, inputs, debug);
+		return executeModel(namespace, null, inputs, debug);
 	}
 
 	@Override
@@ -219,8 +365,7 @@ public class DMNDecisionSession implements DecisionSession {
 	}
 
 	public ExecutionResult executeModel(String namespace, Object input, boolean debug) throws ModelNotFoundException {
-		return executeModel(namespace, SerializationHelper.getInstance().getJSONMapper().convertValue(input, new TypeReference<Map<String, Object>>() {
-		}), debug);
+		return executeModel(namespace, null, input, debug);
 	}
 
 	//
@@ -229,7 +374,7 @@ public class DMNDecisionSession implements DecisionSession {
 
 	@Override
 	public Map<String, InputStructure> getInputStructure(String namespace) throws ModelNotFoundException, ModelIntrospectionException {
-		return (Map<String, InputStructure>) DroolsAnalyzer.getComplexInputStructure(kieRuntime, namespace, null).getValue();
+		return (Map<String, InputStructure>) DroolsAnalyzer.getComplexInputStructure(kieSnapshot.get().getIndex().getModel(namespace), null).getValue();
 	}
 
 	//
@@ -241,20 +386,166 @@ public class DMNDecisionSession implements DecisionSession {
 	}
 
 	public ExecutionResult executeModel(String namespace, String decisionServiceName, Map<String, Object> input, boolean debug) throws ModelNotFoundException {
-		return executeModel(DroolsHelper.getModel(kieRuntime, namespace), decisionServiceName, input, debug);
+		// The model and the runtime need to be taken from the same snapshot.
+		DroolsSnapshot snapshot = acquireSnapshot();
+		try {
+			DMNModel model = snapshot.getIndex().getModel(namespace);
+
+			DroolsPool pool = snapshot.getPool();
+			DMNRuntime runtime = pool.checkout();
+			try {
+				return executeModel(runtime, model, decisionServiceName, input, debug);
+			}
+			finally {
+				pool.release(runtime);
+			}
+		}
+		finally {
+			snapshot.release();
+		}
 	}
 
 	public ExecutionResult executeModel(String namespace, String decisionServiceName, Object input) throws ModelNotFoundException {
 		return executeModel(namespace, decisionServiceName, input, false);
 	}
 
+	/**
+	 * The properties of the POJO are read into the context directly, see {@link DroolsInputReader#bind(Object)}.
+	 */
 	public ExecutionResult executeModel(String namespace, String decisionServiceName, Object input, boolean debug) throws ModelNotFoundException {
-		return executeModel(DroolsHelper.getModel(kieRuntime, namespace), decisionServiceName, SerializationHelper.getInstance().getJSONMapper().convertValue(input, new TypeReference<Map<String, Object>>() {
-		}), debug);
+		return executeModel(namespace, decisionServiceName, DroolsInputReader.bind(input), debug);
+	}
+
+	/**
+	 * Executes the decision model and passes the trace on to the sink while the model is evaluated, so it doesn't need to be held in memory.
+	 * The result only contains the outputs and the messages. The trace limits of the session apply and the sink is not closed.
+	 */
+	public ExecutionResult executeModel(String namespace, String decisionServiceName, Map<String, Object> inputs, DroolsTraceSink traceSink) throws ModelNotFoundException {
+		DMNContext context = createContext(inputs);
+
+		DroolsSnapshot snapshot = acquireSnapshot();
+		try {
+			DMNModel model = snapshot.getIndex().getModel(namespace);
+
+			DroolsPool pool = snapshot.getPool();
+			DMNRuntime runtime = pool.checkout();
+			try {
+				DroolsListener listener = new DroolsListener();
+				List<DMNDecisionResult> results = evaluateModel(runtime, model, decisionServiceName, context, listener, new DroolsDebugger(model.getName(), traceLimits, traceSink));
+				return new ExecutionResult(convertResults(results), new HashMap<>(), new LinkedList<>(), listener.getMessages());
+			}
+			finally {
+				pool.release(runtime);
+			}
+		}
+		finally {
+			snapshot.release();
+		}
+	}
+
+	/**
+	 * Executes the decision model with the inputs of a JSON document.
+	 * The document is read directly into the context, so it is not converted into a map first.
+	 * Numbers are read as BigDecimal and strings with a temporal marker are converted into the matching temporal types.
+	 */
+	public ExecutionResult executeModel(String namespace, InputStream input) throws IOException {
+		return executeModel(namespace, input, false);
+	}
+
+	public ExecutionResult executeModel(String namespace, InputStream input, boolean debug) throws IOException {
+		return executeModel(namespace, null, input, debug);
+	}
+
+	public ExecutionResult executeModel(String namespace, String decisionServiceName, InputStream input, boolean debug) throws IOException {
+		return executeModel(namespace, decisionServiceName, DroolsInputReader.read(input), debug);
+	}
+
+	public ExecutionResult executeModel(String namespace, byte[] input) throws IOException {
+		return executeModel(namespace, input, false);
+	}
+
+	public ExecutionResult executeModel(String namespace, byte[] input, boolean debug) throws IOException {
+		return executeModel(namespace, null, input, debug);
+	}
+
+	public ExecutionResult executeModel(String namespace, String decisionServiceName, byte[] input, boolean debug) throws IOException {
+		return executeModel(namespace, decisionServiceName, DroolsInputReader.read(input), debug);
+	}
+
+	/**
+	 * Executes the decision model and writes the result to the generator, the JSON is the same as the one of the serialized {@link ExecutionResult}.
+	 * The outputs are written while they are converted, so they are not copied into an ExecutionResult first.
+	 */
+	public void executeModel(String namespace, String decisionServiceName, Map<String, Object> inputs, boolean debug, JsonGenerator generator) throws IOException {
+		executeModel(namespace, decisionServiceName, createContext(inputs), debug, generator);
+	}
+
+	/**
+	 * The output stream is not closed. Executions without debug can be sampled, see {@link #setSampler(DroolsSampler, BiConsumer)}.
+	 */
+	public void executeModel(String namespace, String decisionServiceName, Map<String, Object> inputs, boolean debug, OutputStream output) throws IOException {
+		try (JsonGenerator generator = createGenerator(output)) {
+			executeModel(namespace, decisionServiceName, createContext(inputs), debug, generator);
+		}
+	}
+
+	/**
+	 * Reads the inputs from a JSON document and writes the result as JSON, the output stream is not closed.
+	 */
+	public void executeModel(String namespace, String decisionServiceName, InputStream input, boolean debug, OutputStream output) throws IOException {
+		DMNContext context = DroolsInputReader.read(input);
+		try (JsonGenerator generator = createGenerator(output)) {
+			executeModel(namespace, decisionServiceName, context, debug, generator);
+		}
+	}
+
+	public CompletableFuture<ExecutionResult> executeModelAsync(String namespace, Map<String, Object> inputs, boolean debug, Executor executor) {
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				return executeModel(namespace, inputs, debug);
+			}
+			catch (ModelNotFoundException e) {
+				throw new CompletionException(e);
+			}
+		}, executor);
+	}
+
+	public CompletableFuture<ExecutionResult> executeModelAsync(String namespace, String decisionServiceName, Map<String, Object> inputs, boolean debug, Executor executor) {
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				return executeModel(namespace, decisionServiceName, inputs, debug);
+			}
+			catch (ModelNotFoundException e) {
+				throw new CompletionException(e);
+			}
+		}, executor);
+	}
+
+	/**
+	 * Executes the decision model in parallel, the model is resolved once for the whole batch.
+	 */
+	@Override
+	public List<ExecutionResult> executeBatch(String namespace, List<Map<String, Object>> inputs, boolean stopOnFailure) throws ModelNotFoundException {
+		return executeBatch(namespace, null, inputs, stopOnFailure);
+	}
+
+	public List<ExecutionResult> executeBatch(String namespace, String decisionServiceName, List<Map<String, Object>> inputs) throws ModelNotFoundException {
+		return executeBatch(namespace, decisionServiceName, inputs, false);
+	}
+
+	public List<ExecutionResult> executeBatch(String namespace, String decisionServiceName, List<Map<String, Object>> inputs, boolean stopOnFailure) throws ModelNotFoundException {
+		DroolsSnapshot snapshot = acquireSnapshot();
+		try {
+			return executeBatch(snapshot, snapshot.getIndex().getModel(namespace), decisionServiceName, inputs, stopOnFailure);
+		}
+		finally {
+			snapshot.release();
+		}
 	}
 
 	public Map<String, InputStructure> getInputStructure(String namespace, String decisionServiceName) throws ModelNotFoundException, ModelIntrospectionException {
-		DMNModel model = DroolsHelper.getModel(kieRuntime, namespace);
+		DroolsIndex index = kieSnapshot.get().getIndex();
+		DMNModel model = index.getModel(namespace);
 
 		Optional<DecisionServiceNode> optionalDecisionServiceNode = model.getDecisionServices().stream().filter(decisionServiceNode -> decisionServiceNode.getName().equals(decisionServiceName)).findFirst();
 		if (!optionalDecisionServiceNode.isPresent()) {
@@ -266,42 +557,109 @@ public class DMNDecisionSession implements DecisionSession {
 		DecisionService decisionService = optionalDecisionServiceNode.get().getDecisionService();
 		for (DMNElementReference reference : decisionService.getInputData()) {
 			String[] referenceChunks = reference.getHref().split("#");
-			decisionServiceReferences.add(new DecisionServiceReference(referenceChunks[0].equals("") ? model.getName() : DroolsHelper.getModel(kieRuntime, referenceChunks[0]).getName(), DecisionServiceReference.DecisionServiceReferenceType.INPUT, referenceChunks[1]));
+			decisionServiceReferences.add(new DecisionServiceReference(referenceChunks[0].equals("") ? model.getName() : index.getModel(referenceChunks[0]).getName(), DecisionServiceReference.DecisionServiceReferenceType.INPUT, referenceChunks[1]));
 		}
 		for (DMNElementReference reference : decisionService.getInputDecision()) {
 			String[] referenceChunks = reference.getHref().split("#");
-			decisionServiceReferences.add(new DecisionServiceReference(referenceChunks[0].equals("") ? model.getName() : DroolsHelper.getModel(kieRuntime, referenceChunks[0]).getName(), DecisionServiceReference.DecisionServiceReferenceType.DECISION, referenceChunks[1]));
+			decisionServiceReferences.add(new DecisionServiceReference(referenceChunks[0].equals("") ? model.getName() : index.getModel(referenceChunks[0]).getName(), DecisionServiceReference.DecisionServiceReferenceType.DECISION, referenceChunks[1]));
 		}
 
-		return (Map<String, InputStructure>) DroolsAnalyzer.getComplexInputStructure(kieRuntime, namespace, decisionServiceReferences).getValue();
+		return (Map<String, InputStructure>) DroolsAnalyzer.getComplexInputStructure(model, decisionServiceReferences).getValue();
 	}
 
 	//
 	// Custom Methods
 	//
 
-	private ExecutionResult executeModel(DMNModel model, String decisionServiceName, Map<String, ?> inputs, boolean debug) {
-		// We need to copy all key-value pairs from the given HashMap<String, Object> into the context
-		DMNContext context = kieRuntime.newContext();
-		for (Map.Entry<String, ?> entry : inputs.entrySet()) {
-			context.set(entry.getKey(), DroolsHelper.enrichInput(entry.getValue()));
+	private ExecutionResult executeModel(String namespace, String decisionServiceName, DMNContext context, boolean debug) throws ModelNotFoundException {
+		// The inputs have been read before, so a slow stream doesn't block a runtime of the pool.
+		DroolsSnapshot snapshot = acquireSnapshot();
+		try {
+			DMNModel model = snapshot.getIndex().getModel(namespace);
+
+			DroolsPool pool = snapshot.getPool();
+			DMNRuntime runtime = pool.checkout();
+			try {
+				return executeModel(runtime, model, decisionServiceName, context, debug);
+			}
+			finally {
+				pool.release(runtime);
+			}
 		}
+		finally {
+			snapshot.release();
+		}
+	}
 
-		DroolsListener listener = new DroolsListener(this);
-		listener.start(model.getNamespace(), model.getName());
+	private void executeModel(String namespace, String decisionServiceName, DMNContext context, boolean debug, JsonGenerator generator) throws IOException {
+		DroolsListener listener = new DroolsListener();
+		Sampling sampling = debug ? null : this.sampling;
+		boolean sampled;
+		DroolsDebugger debugger;
+		List<DMNDecisionResult> results;
+		String modelNamespace;
 
-		DroolsDebugger debugger = new DroolsDebugger(this);
-		if (debug) {
-			debugger.start(model.getNamespace(), model.getName());
+		DroolsSnapshot snapshot = acquireSnapshot();
+		try {
+			DMNModel model = snapshot.getIndex().getModel(namespace);
+			modelNamespace = model.getNamespace();
+			// Executions without debug are only traced if the sampler of the session selects them.
+			sampled = sampling != null && sampling.sample(modelNamespace, context);
+			debugger = debug || sampled ? new DroolsDebugger(model.getName(), traceLimits) : null;
+
+			DroolsPool pool = snapshot.getPool();
+			DMNRuntime runtime = pool.checkout();
+			try {
+				results = evaluateModel(runtime, model, decisionServiceName, context, listener, debugger);
+			}
+			finally {
+				pool.release(runtime);
+			}
+		}
+		finally {
+			snapshot.release();
 		}
 
-		// By calling evaluateAll, the dmn model and the dmn context are sent to the drools engine
-		List<DMNDecisionResult> results = (decisionServiceName == null ? kieRuntime.evaluateAll(model, context) : kieRuntime.evaluateDecisionService(model, context, decisionServiceName)).getDecisionResults();
-		listener.stop();
-		if (debug) {
-			debugger.stop();
+		if (sampled) {
+			sampling.publish(modelNamespace, new ExecutionResult(convertResults(results), debugger.getDecisions(), debugger.getModelAccessLog(), listener.getMessages()));
+		}
+
+		// The results don't depend on the runtime, so a slow output stream doesn't block it.
+		if (debugger == null || sampled) {
+			DroolsResultWriter.write(generator, results, Collections.emptyMap(), Collections.emptyList(), listener.getMessages());
+			return;
+		}
+		DroolsResultWriter.write(generator, results, debugger.getDecisions(), debugger.getModelAccessLog(), listener.getMessages());
+	}
+
+	private ExecutionResult executeModel(DMNRuntime runtime, DMNModel model, String decisionServiceName, Map<String, ?> inputs, boolean debug) {
+		return executeModel(runtime, model, decisionServiceName, createContext(inputs), debug);
+	}
+
+	private ExecutionResult executeModel(DMNRuntime runtime, DMNModel model, String decisionServiceName, DMNContext context, boolean debug) {
+		DroolsListener listener = new DroolsListener();
+		// Executions without debug are only traced if the sampler of the session selects them.
+		Sampling sampling = debug ? null : this.sampling;
+		boolean sampled = sampling != null && sampling.sample(model.getNamespace(), context);
+		DroolsDebugger debugger = debug || sampled ? new DroolsDebugger(model.getName(), traceLimits) : null;
+
+		List<DMNDecisionResult> results = evaluateModel(runtime, model, decisionServiceName, context, listener, debugger);
+		Map<String, Object> outputs = convertResults(results);
+
+		if (debugger == null) {
+			return new ExecutionResult(outputs, new HashMap<>(), new LinkedList<>(), listener.getMessages());
+		}
+
+		ExecutionResult executionResult = new ExecutionResult(outputs, debugger.getDecisions(), debugger.getModelAccessLog(), listener.getMessages());
+		if (sampled) {
+			// The caller hasn't requested the trace, so it only receives the outputs.
+			sampling.publish(model.getNamespace(), executionResult);
+			return new ExecutionResult(outputs, new HashMap<>(), new LinkedList<>(), listener.getMessages());
 		}
+		return executionResult;
+	}
 
+	private Map<String, Object> convertResults(List<DMNDecisionResult> results) {
 		// After we've received the results, we need to convert them into a usable format
 		Map<String, Object> outputs = new LinkedHashMap<>();
 		for (DMNDecisionResult decisionResult : results) {
@@ -313,8 +671,67 @@ public class DMNDecisionSession implements DecisionSession {
 
 			outputs.put(decisionResult.getDecisionName(), DroolsHelper.cleanOutput(decisionResult.getResult()));
 		}
+		return outputs;
+	}
 
-		return new ExecutionResult(outputs, debugger.getDecisions(), debugger.getModelAccessLog(), listener.getMessages());
+	private List<DMNDecisionResult> evaluateModel(DMNRuntime runtime, DMNModel model, String decisionServiceName, DMNContext context, DroolsListener listener, DroolsDebugger debugger) {
+		// The collectors receive the events of this evaluation through the dispatcher.
+		dispatcher.addListener(listener);
+		if (debugger != null) {
+			dispatcher.addListener(debugger);
+		}
+
+		// By calling evaluateAll, the dmn model and the dmn context are sent to the drools engine
+		try {
+			return (decisionServiceName == null ? runtime.evaluateAll(model, context) : runtime.evaluateDecisionService(model, context, decisionServiceName)).getDecisionResults();
+		}
+		catch (RuntimeException e) {
+			// The nodes that have been left by the exception would be attributed to the next evaluation on this thread.
+			timer.discard();
+			throw e;
+		}
+		finally {
+			// Even if the evaluation fails, the collectors must not receive the events of later evaluations.
+			dispatcher.removeListener(listener);
+			if (debugger != null) {
+				dispatcher.removeListener(debugger);
+			}
+		}
+	}
+
+	private JsonGenerator createGenerator(OutputStream output) throws IOException {
+		// The generator is created by the ObjectMapper, so it can also write values that aren't supported by Jackson directly.
+		JsonGenerator generator = SerializationHelper.getInstance().getJSONMapper().getFactory().createGenerator(output);
+		generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+		return generator;
+	}
+
+	private DMNContext createContext(Map<String, ?> inputs) {
+		// We need to copy all key-value pairs from the given HashMap<String, Object> into the context
+		DMNContext context = DMNFactory.newContext();
+		for (Map.Entry<String, ?> entry : inputs.entrySet()) {
+			context.set(entry.getKey(), DroolsHelper.enrichInput(entry.getValue()));
+		}
+		return context;
+	}
+
+	private List<ExecutionResult> executeBatch(DroolsSnapshot snapshot, DMNModel model, String decisionServiceName, List<Map<String, Object>> inputs, boolean stopOnFailure) {
+		// The inputs are accessed by their index, so we need a list that supports this efficiently.
+		if (!(inputs instanceof RandomAccess)) {
+			inputs = new ArrayList<>(inputs);
+		}
+
+		ExecutionResult[] results = new ExecutionResult[inputs.size()];
+		AtomicInteger firstFailure = new AtomicInteger(inputs.size());
+
+		// Every chunk should be big enough to justify the checkout of a runtime, but there should be enough chunks to keep all workers busy.
+		int threshold = Math.max(1, inputs.size() / (ForkJoinPool.getCommonPoolParallelism() * 4));
+		// If there are fewer runtimes than workers, the leaves wait for a runtime as managed blockers, so the common pool stays usable for others.
+		ForkJoinPool.commonPool().invoke(new BatchTask(snapshot.getPool(), model, decisionServiceName, inputs, results, 0, inputs.size(), threshold, stopOnFailure ? firstFailure : null));
+
+		// All executions before the first failure have been completed, the ones after it might have been skipped.
+		int size = Math.min(firstFailure.get() + 1, inputs.size());
+		return new ArrayList<>(Arrays.asList(results).subList(0, size));
 	}
 
 	private String getPath(String namespace) {
@@ -323,47 +740,134 @@ public class DMNDecisionSession implements DecisionSession {
 
 	/**
 	 * Reloads the service by compiling the decision models.
-	 *
-	 * @return Warnings that occurred during compilation.
+	 * The new snapshot is built next to the current one, which is disposed after its last execution has finished.
 	 */
 	private void compileModels() {
-		// We'll dispose the old session before creating a new one.
-		if (kieSession != null) {
-			kieSession.dispose();
+		KieContainer container = kieServices.newKieContainer(kieReleaseId);
+
+		// The dispatcher and the timer are the only listeners of the runtimes, the listeners of the executions are registered at the dispatcher.
+		// The timer is always active, so it is called by the runtimes directly.
+		DroolsPool pool = new DroolsPool(container, poolSize, dispatcher, timer);
+
+		DroolsSnapshot previousSnapshot = kieSnapshot.getAndSet(new DroolsSnapshot(container, pool, new DroolsIndex(pool.getRuntime())));
+		if (previousSnapshot != null) {
+			// We give up the reference of the session, the running executions still hold theirs.
+			previousSnapshot.release();
+		}
+	}
+
+	/**
+	 * Returns the current snapshot. It must be released after the execution.
+	 */
+	private DroolsSnapshot acquireSnapshot() {
+		while (true) {
+			DroolsSnapshot snapshot = kieSnapshot.get();
+			// If the snapshot has been replaced and disposed in the meantime, we'll try again with the new one.
+			if (snapshot.acquire()) {
+				return snapshot;
+			}
 		}
-		if (kieContainer != null) {
-			kieContainer.dispose();
+	}
+
+	/**
+	 * Returns a runtime of the current snapshot that can be used to inspect the models.
+	 * Listeners that are added to it receive the events of all executions until the models are imported or deleted next, see {@link DroolsPool#getRuntime()}.
+	 */
+	public DMNRuntime getRuntime() {
+		return kieSnapshot.get().getPool().getRuntime();
+	}
+
+	/**
+	 * Returns the pool of runtimes, it provides the pool size and statistics about its utilization.
+	 */
+	public DroolsPool getPool() {
+		return kieSnapshot.get().getPool();
+	}
+
+	public DroolsDispatcher getDispatcher() {
+		return dispatcher;
+	}
+
+	/**
+	 * Returns the evaluator of executeExpression, it provides statistics about its cache.
+	 */
+	public DroolsExpressionEvaluator getExpressionEvaluator() {
+		return expressionEvaluator;
+	}
+
+	/**
+	 * Traces the executions without debug that are selected by the sampler.
+	 * The traces are passed to the sink together with the namespace of the executed model, the callers still receive their results without a trace.
+	 * The sink is called on the executing thread after the evaluation, so it should hand the trace off if it needs to do more than storing it.
+	 * The sampler and the sink receive the namespace of the executed model.
+	 * <p>
+	 * All executions without debug are sampled, including the batches and the executions that write their result as JSON.
+	 * Executions that pass their trace to a {@link DroolsTraceSink} are never sampled.
+	 * <p>
+	 * If the sampler is null, executions without debug are not traced at all.
+	 */
+	public void setSampler(DroolsSampler sampler, BiConsumer<String, ExecutionResult> sink) {
+		if (sampler != null && sink == null) {
+			throw new IllegalArgumentException("The traces of the sampled executions need a sink.");
 		}
 
-		kieContainer = kieServices.newKieContainer(kieReleaseId);
+		sampling = sampler == null ? null : new Sampling(sampler, sink);
+	}
 
-		// KieSession allows the application to establish a connection to the Drools engine.
-		// The state is kept across invocations.
-		kieSession = kieContainer.newKieSession();
+	public DroolsTraceLimits getTraceLimits() {
+		return traceLimits;
+	}
 
-		// Get the KieRuntime through the established connection.
-		kieRuntime = kieSession.getKieRuntime(DMNRuntime.class);
-		// TODO: Should we enable this? ((DMNRuntimeImpl) kieRuntime).setOption(new RuntimeTypeCheckOption(true));
+	/**
+	 * Limits the traces of executions with debug and of sampled executions, the parts that exceed the limits are replaced with markers.
+	 */
+	public void setTraceLimits(DroolsTraceLimits traceLimits) {
+		this.traceLimits = traceLimits == null ? DroolsTraceLimits.UNLIMITED : traceLimits;
 	}
 
-	public DMNRuntime getRuntime() {
-		return kieRuntime;
+	/**
+	 * Returns the durations of the decisions, knowledge models and decision services of a model, they are recorded for every execution.
+	 * The nodes of imported models are returned with the namespace of their own model.
+	 */
+	public Map<String, DroolsHistogram> getLatencies(String namespace) {
+		return latencies.getHistograms(namespace);
 	}
 
-	public ExecutionResult executeExpression(String expression, Map<String, Object> inputs) throws ModelImportException {
-		List<FEELProfile> profiles = new ArrayList<>();
-		profiles.add(new KieExtendedFEELProfile());
-		FEEL feel = FEEL.newInstance(DMNDecisionSession.class.getClassLoader(), profiles);
+	/**
+	 * Returns null if the node hasn't been evaluated yet.
+	 */
+	public DroolsHistogram getLatency(String namespace, String name) {
+		return latencies.getHistogram(namespace, name);
+	}
 
+	public void resetLatencies() {
+		latencies.reset();
+	}
+
+	public ExecutionResult executeExpression(String expression, Map<String, Object> inputs) throws ModelImportException {
 		List<Message> messages = new LinkedList<>();
-		feel.addListener(feelEvent -> messages.add(new Message(feelEvent.getMessage(), DroolsHelper.convertFEELEventLevel(feelEvent.getSeverity()))));
 
 		HashMap<String, Object> decisions = new LinkedHashMap<>();
-		decisions.put("main", DroolsHelper.cleanOutput(feel.evaluate(expression, (Map<String, Object>) DroolsHelper.enrichInput(inputs))));
+		decisions.put("main", DroolsHelper.cleanOutput(expressionEvaluator.evaluate(expression, (Map<String, Object>) DroolsHelper.enrichInput(inputs), messages)));
 
 		return new ExecutionResult(decisions, null, messages);
 	}
 
+	/**
+	 * Drools reports the path of the file that a message belongs to, which allows us to assign it to a model.
+	 */
+	private Map<String, ImportResult> groupMessages(Collection<String> namespaces) {
+		Map<String, ImportResult> results = new LinkedHashMap<>();
+		for (String namespace : namespaces) {
+			// The path of the message is relative to the resources folder.
+			String fileName = getPath(namespace).substring("src/main/resources/".length());
+
+			Set<org.kie.api.builder.Message> messages = kieMessages.stream().filter(message -> fileName.equals(message.getPath())).collect(Collectors.toSet());
+			results.put(namespace, new ImportResult(convertMessages(messages)));
+		}
+		return results;
+	}
+
 	private List<Message> convertMessages(Set<org.kie.api.builder.Message> messages) {
 		List<Message> convertedMessages = new LinkedList<>();
 		for (org.kie.api.builder.Message message : messages) {
@@ -396,4 +900,96 @@ public class DMNDecisionSession implements DecisionSession {
 		// As we traveled from the child to the root, we need to reverse the path.
 		Collections.reverse(path);
 	}
+
+	/**
+	 * Splits a batch until the chunks are small enough. All executions of a chunk share a single runtime.
+	 */
+	private class BatchTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final DroolsPool pool;
+		private final DMNModel model;
+		private final String decisionServiceName;
+		private final List<Map<String, Object>> inputs;
+		private final ExecutionResult[] results;
+		private final int start;
+		private final int end;
+		private final int threshold;
+		private final AtomicInteger firstFailure;
+
+		private BatchTask(DroolsPool pool, DMNModel model, String decisionServiceName, List<Map<String, Object>> inputs, ExecutionResult[] results, int start, int end, int threshold, AtomicInteger firstFailure) {
+			this.pool = pool;
+			this.model = model;
+			this.decisionServiceName = decisionServiceName;
+			this.inputs = inputs;
+			this.results = results;
+			this.start = start;
+			this.end = end;
+			this.threshold = threshold;
+			this.firstFailure = firstFailure;
+		}
+
+		@Override
+		protected void compute() {
+			if (end - start > threshold) {
+				int middle = (start + end) >>> 1;
+				invokeAll(
+					new BatchTask(pool, model, decisionServiceName, inputs, results, start, middle, threshold, firstFailure),
+					new BatchTask(pool, model, decisionServiceName, inputs, results, middle, end, threshold, firstFailure)
+				);
+				return;
+			}
+
+			DMNRuntime runtime = pool.checkout();
+			try {
+				for (int i = start; i < end; i++) {
+					// If an earlier execution has failed, the results of the later ones are not needed anymore.
+					if (firstFailure != null && i > firstFailure.get()) {
+						return;
+					}
+
+					results[i] = executeModel(runtime, model, decisionServiceName, inputs.get(i), false);
+					if (firstFailure != null && results[i].hasErrors()) {
+						firstFailure.accumulateAndGet(i, Math::min);
+					}
+				}
+			}
+			finally {
+				pool.release(runtime);
+			}
+		}
+	}
+
+	/**
+	 * Combines the sampler and the sink, so they can be replaced together.
+	 */
+	private static class Sampling {
+		private final DroolsSampler sampler;
+		private final BiConsumer<String, ExecutionResult> sink;
+
+		private Sampling(DroolsSampler sampler, BiConsumer<String, ExecutionResult> sink) {
+			this.sampler = sampler;
+			this.sink = sink;
+		}
+
+		private boolean sample(String namespace, DMNContext context) {
+			// A failing sampler must not fail the execution, it is just not traced.
+			try {
+				return sampler.sample(namespace, context.getAll());
+			}
+			catch (RuntimeException e) {
+				log.error("The sampler has failed for the model {}.", namespace, e);
+				return false;
+			}
+		}
+
+		private void publish(String namespace, ExecutionResult executionResult) {
+			try {
+				sink.accept(namespace, executionResult);
+			}
+			catch (RuntimeException e) {
+				log.error("The trace of the model {} could not be published.", namespace, e);
+			}
+		}
+	}
 }
@@ -1,9 +1,16 @@
 package de.materna.jdec;
 
 import de.materna.jdec.model.*;
+import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 public interface DecisionSession {
 	/**
@@ -26,6 +33,20 @@ public interface DecisionSession {
 	 */
 	ImportResult importModel(String namespace, String model) throws ModelImportException;
 
+	/**
+	 * Imports multiple decision models.
+	 *
+	 * @param models Decision models that will be imported, mapped by their namespace.
+	 * @return Results of the imports, mapped by the namespace of the decision model.
+	 */
+	default Map<String, ImportResult> importModels(Map<String, String> models) throws ModelImportException {
+		Map<String, ImportResult> results = new LinkedHashMap<>();
+		for (Map.Entry<String, String> entry : models.entrySet()) {
+			results.put(entry.getKey(), importModel(entry.getKey(), entry.getValue()));
+		}
+		return results;
+	}
+
 	/**
 	 * Deletes the decision model.
 	 *
@@ -49,6 +70,111 @@ public interface DecisionSession {
 	 */
 	ExecutionResult executeModel(String namespace, Object input) throws ModelNotFoundException;
 
+	/**
+	 * Executes the decision model asynchronously.
+	 * If the decision model can't be found, the returned future completes exceptionally with a ModelNotFoundException.
+	 *
+	 * @param namespace Namespace of the decision model. It can be extracted with /definitions/@namespace.
+	 * @param inputs    Inputs that will be sent to the execution engine.
+	 * @param executor  Executor that runs the execution, e.g. a thread pool or an executor that uses virtual threads.
+	 */
+	default CompletableFuture<ExecutionResult> executeModelAsync(String namespace, Map<String, Object> inputs, Executor executor) {
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				return executeModel(namespace, inputs);
+			}
+			catch (ModelNotFoundException e) {
+				throw new CompletionException(e);
+			}
+		}, executor);
+	}
+
+	/**
+	 * Executes the decision model asynchronously.
+	 * If the decision model can't be found, the returned future completes exceptionally with a ModelNotFoundException.
+	 *
+	 * @param namespace Namespace of the decision model. It can be extracted with /definitions/@namespace.
+	 * @param input     Input that will be serialized and sent to the execution engine.
+	 * @param executor  Executor that runs the execution, e.g. a thread pool or an executor that uses virtual threads.
+	 */
+	default CompletableFuture<ExecutionResult> executeModelAsync(String namespace, Object input, Executor executor) {
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				return executeModel(namespace, input);
+			}
+			catch (ModelNotFoundException e) {
+				throw new CompletionException(e);
+			}
+		}, executor);
+	}
+
+	/**
+	 * Executes the decision model once for every input.
+	 *
+	 * @param namespace Namespace of the decision model. It can be extracted with /definitions/@namespace.
+	 * @param inputs    Inputs that will be sent to the execution engine, one map per execution.
+	 * @return Results in the order of the inputs.
+	 */
+	default List<ExecutionResult> executeBatch(String namespace, List<Map<String, Object>> inputs) throws ModelNotFoundException {
+		return executeBatch(namespace, inputs, false);
+	}
+
+	/**
+	 * Executes the decision model once for every input.
+	 *
+	 * @param namespace     Namespace of the decision model. It can be extracted with /definitions/@namespace.
+	 * @param inputs        Inputs that will be sent to the execution engine, one map per execution.
+	 * @param stopOnFailure If true, the batch stops at the first execution that reports an error.
+	 *                      Only the results up to and including the failed execution are returned.
+	 * @return Results in the order of the inputs.
+	 */
+	default List<ExecutionResult> executeBatch(String namespace, List<Map<String, Object>> inputs, boolean stopOnFailure) throws ModelNotFoundException {
+		List<ExecutionResult> results = new ArrayList<>(inputs.size());
+		for (Map<String, Object> input : inputs) {
+			ExecutionResult result = executeModel(namespace, input);
+			results.add(result);
+
+			if (stopOnFailure && result.hasErrors()) {
+				break;
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Executes every decision model with synthetic inputs, so the JIT has compiled the execution paths before the first real execution arrives.
+	 * The inputs are generated from the input structure, see {@link InputStructure#createSample()}.
+	 * The method returns after all executions have finished, afterwards the application can report that it is ready.
+	 * <p>
+	 * If a decision model can't be warmed up, e.g. because it has been deleted in the meantime, the error is logged and the next decision model is warmed up.
+	 *
+	 * @param iterations Number of executions per decision model.
+	 * @return Duration of the warm-up, mapped by the namespace of the decision model. Decision models that couldn't be warmed up are not contained.
+	 */
+	default Map<String, Duration> warmUp(int iterations) {
+		Map<String, Duration> durations = new LinkedHashMap<>();
+		for (Model model : getModels()) {
+			try {
+				Map<String, Object> inputs = new LinkedHashMap<>();
+				for (Map.Entry<String, InputStructure> entry : getInputStructure(model.getNamespace()).entrySet()) {
+					inputs.put(entry.getKey(), entry.getValue().createSample());
+				}
+
+				long start = System.nanoTime();
+				for (int i = 0; i < iterations; i++) {
+					// The results are not relevant, synthetic inputs might even lead to error messages.
+					executeModel(model.getNamespace(), inputs);
+				}
+				durations.put(model.getNamespace(), Duration.ofNanos(System.nanoTime() - start));
+			}
+			catch (ModelNotFoundException | ModelIntrospectionException | RuntimeException e) {
+				// Java and hybrid models can fail with any exception, the other models are warmed up anyway.
+				LoggerFactory.getLogger(getClass()).warn("Could not warm up the decision model {}", model.getNamespace(), e);
+			}
+		}
+		return durations;
+	}
+
 	/**
 	 * Returns the input structure that is required for executing the decision model.
 	 *
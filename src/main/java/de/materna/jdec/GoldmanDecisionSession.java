@@ -7,6 +7,7 @@ import com.gs.dmn.context.environment.EnvironmentFactory;
 import com.gs.dmn.context.environment.RuntimeEnvironment;
 import com.gs.dmn.dialect.StandardDMNDialectDefinition;
 import com.gs.dmn.el.analysis.semantics.type.Type;
+import com.gs.dmn.el.analysis.syntax.ast.expression.Expression;
 import com.gs.dmn.el.interpreter.ELInterpreter;
 import com.gs.dmn.feel.analysis.semantics.SemanticError;
 import com.gs.dmn.runtime.Context;
@@ -22,12 +23,21 @@ import de.materna.jdec.model.ModelImportException;
 import java.math.BigDecimal;
 import java.util.*;
 
+/**
+ * The interpreter and the built-in context are created once and shared by all executions, every execution only creates a global context for its inputs.
+ * Analyzed expressions are kept by their text and the types of their inputs, because the analysis annotates the expression with the types.
+ */
 public class GoldmanDecisionSession {
+	private static final int EXPRESSION_CACHE_SIZE = 1000;
+
 	private InputParameters inputParameters;
 	private EnvironmentFactory environmentFactory;
 	private BasicDMNToJavaTransformer basicTransformer;
 	private StandardDMNDialectDefinition dialectDefinition;
 	private DMNModelRepository modelRepository;
+	private DMNContext builtInContext;
+	private ELInterpreter<Type, DMNContext> feelInterpreter;
+	private Map<String, Expression<Type>> expressions;
 
 	public GoldmanDecisionSession() {
 		dialectDefinition = new StandardDMNDialectDefinition();
@@ -36,18 +46,33 @@ public class GoldmanDecisionSession {
 		basicTransformer = dialectDefinition.createBasicTransformer(modelRepository, new NopLazyEvaluationDetector(), inputParameters);
 
 		environmentFactory = dialectDefinition.createEnvironmentFactory();
+
+		// The built-in context is only read by the executions.
+		builtInContext = basicTransformer.makeBuiltInContext();
+		// The interpreter is only used to evaluate expressions that have already been analyzed, this doesn't modify its state.
+		feelInterpreter = dialectDefinition.createELInterpreter(modelRepository, inputParameters);
+
+		// The map is ordered by access, so the least recently used expression is removed first.
+		expressions = new LinkedHashMap<String, Expression<Type>>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Expression<Type>> eldest) {
+				return size() > EXPRESSION_CACHE_SIZE;
+			}
+		};
 	}
 
 	public ExecutionResult executeExpression(String expression, Map<String, Object> inputs) throws ModelImportException {
-		DMNContext context = DMNContext.of(basicTransformer.makeBuiltInContext(), DMNContextKind.GLOBAL, null, environmentFactory.emptyEnvironment(), RuntimeEnvironment.of());
+		DMNContext context = DMNContext.of(builtInContext, DMNContextKind.GLOBAL, null, environmentFactory.emptyEnvironment(), RuntimeEnvironment.of());
+		StringBuilder key = new StringBuilder(expression);
 		for (Map.Entry<String, Object> entry : inputs.entrySet()) {
-			context.bind(entry.getKey(), DroolsHelper.enrichInput(convertInput(entry.getValue())));
-		}
+			Object value = DroolsHelper.enrichInput(convertInput(entry.getValue()));
+			context.bind(entry.getKey(), value);
 
-		ELInterpreter<Type, DMNContext> feelInterpreter = dialectDefinition.createELInterpreter(modelRepository, inputParameters);
+			key.append('\u0000').append(entry.getKey()).append('\u0000').append(value == null ? "null" : value.getClass().getName());
+		}
 
 		try {
-			Result result = feelInterpreter.evaluateExpression(expression, context);
+			Result result = feelInterpreter.evaluateExpression(analyzeExpression(expression, key.toString(), context), context);
 
 			HashMap<String, Object> decisions = new LinkedHashMap<>();
 			decisions.put("main", DroolsHelper.cleanOutput(convertOutput(Result.value(result))));
@@ -59,26 +84,44 @@ public class GoldmanDecisionSession {
 		}
 	}
 
+	private Expression<Type> analyzeExpression(String expression, String key, DMNContext context) {
+		synchronized (expressions) {
+			Expression<Type> analyzedExpression = expressions.get(key);
+			if (analyzedExpression != null) {
+				return analyzedExpression;
+			}
+		}
+
+		// The analyzer keeps every parsed expression without any synchronization and annotates it during the analysis.
+		// Therefore, every analysis uses its own interpreter, so the expressions in our cache are never modified.
+		Expression<Type> analyzedExpression = dialectDefinition.createELInterpreter(modelRepository, inputParameters).analyzeExpression(expression, context);
+
+		synchronized (expressions) {
+			expressions.put(key, analyzedExpression);
+		}
+		return analyzedExpression;
+	}
+
+	/**
+	 * Maps and lists are only copied if one of their values or keys needs to be converted.
+	 */
 	private static Object convertInput(Object value) {
 		if (value instanceof Map) {
+			Map<?, Object> context = DroolsHelper.transformValues((Map<?, ?>) value, GoldmanDecisionSession::convertInput);
+			if (context.keySet().stream().allMatch(key -> key instanceof String)) {
+				return context;
+			}
 
-			Map<String, Object> context = (Map<String, Object>) value;
-
-			Map<String, Object> convertedContext = new HashMap<>();
-			for (Object key : context.keySet()) {
-				convertedContext.put(key.toString(), convertInput(context.get(key)));
+			// The entries of a context are bound by their names, so the keys need to be strings.
+			Map<String, Object> convertedContext = new LinkedHashMap<>();
+			for (Map.Entry<?, Object> entry : context.entrySet()) {
+				convertedContext.put(entry.getKey().toString(), entry.getValue());
 			}
 			return convertedContext;
 		}
 
 		if (value instanceof List) {
-			List<Object> context = (List<Object>) value;
-
-			List<Object> convertedContext = new ArrayList<>();
-			for (Object entry : context) {
-				convertedContext.add(convertInput(entry));
-			}
-			return convertedContext;
+			return DroolsHelper.transformValues((List<?>) value, GoldmanDecisionSession::convertInput);
 		}
 
 		// It seems that jDMN only supports BigDecimal for numeric values. For this reason, we convert them.
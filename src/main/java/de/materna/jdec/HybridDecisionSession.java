@@ -1,8 +1,6 @@
 package de.materna.jdec;
 
-import com.fasterxml.jackson.core.type.TypeReference;
 import de.materna.jdec.model.*;
-import de.materna.jdec.serialization.SerializationHelper;
 
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -65,6 +63,35 @@ public class HybridDecisionSession implements DecisionSession {
 		return importResult;
 	}
 
+	/**
+	 * The decision models are compiled at once, the java models are imported one by one.
+	 */
+	@Override
+	public Map<String, ImportResult> importModels(Map<String, String> models) throws ModelImportException {
+		Map<String, String> dmnModels = new LinkedHashMap<>();
+		Map<String, String> javaModels = new LinkedHashMap<>();
+		for (Map.Entry<String, String> entry : models.entrySet()) {
+			if (entry.getValue().charAt(0) == '<') {
+				dmnModels.put(entry.getKey(), entry.getValue());
+			}
+			else {
+				javaModels.put(entry.getKey(), entry.getValue());
+			}
+		}
+
+		Map<String, ImportResult> results = new LinkedHashMap<>();
+		if (!dmnModels.isEmpty()) {
+			results.putAll(dmnDecisionSession.importModels(dmnModels));
+			for (String namespace : dmnModels.keySet()) {
+				decisionSessionMapping.put(namespace, DecisionSessionMapping.DMN);
+			}
+		}
+		for (Map.Entry<String, String> entry : javaModels.entrySet()) {
+			results.put(entry.getKey(), importModel(entry.getKey(), entry.getValue()));
+		}
+		return results;
+	}
+
 	@Override
 	public ImportResult deleteModel(String namespace) throws ModelImportException {
 		if (!decisionSessionMapping.containsKey(namespace)) {
@@ -102,8 +129,35 @@ public class HybridDecisionSession implements DecisionSession {
 	}
 	@Override
 	public ExecutionResult executeModel(String namespace, Object input) throws ModelNotFoundException {
-		return executeModel(namespace, SerializationHelper.getInstance().getJSONMapper().convertValue(input, new TypeReference<Map<String, Object>>() {
-		}));
+		if (!decisionSessionMapping.containsKey(namespace)) {
+			throw new ModelNotFoundException();
+		}
+
+		// The sessions convert the input themselves, so it is only converted once.
+		switch (decisionSessionMapping.get(namespace)) {
+			case DMN:
+				return dmnDecisionSession.executeModel(namespace, input);
+			case JAVA:
+				return javaDecisionSession.executeModel(namespace, input);
+			default:
+				throw new ModelNotFoundException();
+		}
+	}
+
+	@Override
+	public List<ExecutionResult> executeBatch(String namespace, List<Map<String, Object>> inputs, boolean stopOnFailure) throws ModelNotFoundException {
+		if (!decisionSessionMapping.containsKey(namespace)) {
+			throw new ModelNotFoundException();
+		}
+
+		switch (decisionSessionMapping.get(namespace)) {
+			case DMN:
+				return dmnDecisionSession.executeBatch(namespace, inputs, stopOnFailure);
+			case JAVA:
+				return javaDecisionSession.executeBatch(namespace, inputs, stopOnFailure);
+			default:
+				throw new ModelNotFoundException();
+		}
 	}
 
 	//
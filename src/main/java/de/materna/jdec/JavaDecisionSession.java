@@ -1,9 +1,8 @@
 package de.materna.jdec;
 
-import com.fasterxml.jackson.core.type.TypeReference;
 import de.materna.jdec.java.DecisionModel;
 import de.materna.jdec.model.*;
-import de.materna.jdec.serialization.SerializationHelper;
+import de.materna.jdec.serialization.InputBinder;
 import org.codehaus.commons.compiler.CompileException;
 import org.codehaus.commons.compiler.CompilerFactoryFactory;
 import org.codehaus.commons.compiler.util.ResourceFinderClassLoader;
@@ -103,8 +102,7 @@ public class JavaDecisionSession implements DecisionSession {
 	}
 	@Override
 	public ExecutionResult executeModel(String namespace, Object input) throws ModelNotFoundException {
-		return executeModel(namespace, SerializationHelper.getInstance().getJSONMapper().convertValue(input, new TypeReference<Map<String, Object>>() {
-		}));
+		return executeModel(namespace, InputBinder.toMap(input));
 	}
 
 	//
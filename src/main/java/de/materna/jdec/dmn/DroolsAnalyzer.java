@@ -5,11 +5,9 @@ import org.kie.dmn.feel.lang.types.AliasFEELType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.kie.dmn.api.core.DMNModel;
-import org.kie.dmn.api.core.DMNRuntime;
 import org.kie.dmn.api.core.DMNType;
 import org.kie.dmn.api.core.ast.DecisionNode;
 import org.kie.dmn.api.core.ast.InputDataNode;
-import org.kie.dmn.model.api.Import;
 
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
@@ -23,10 +21,10 @@ public class DroolsAnalyzer {
 	}
 
 	/**
-	 * Uses getInputs() to convert all inputs into our own class hierarchy
+	 * Uses getInputs() to convert all inputs of an already resolved model into our own class hierarchy
 	 */
-	public static ComplexInputStructure getComplexInputStructure(DMNRuntime runtime, String namespace, List<DecisionServiceReference> decisionServiceReferences) throws ModelNotFoundException, ModelIntrospectionException {
-		DMNModel model = DroolsHelper.getModel(runtime, namespace);
+	public static ComplexInputStructure getComplexInputStructure(DMNModel model, List<DecisionServiceReference> decisionServiceReferences) throws ModelIntrospectionException {
+		String namespace = model.getNamespace();
 
 		ComplexInputStructure modelInput = new ComplexInputStructure("object", false);
 
@@ -67,13 +65,6 @@ public class DroolsAnalyzer {
 			});
 		}
 
-		/*
-		// All other inputs are resolved and added recursively via the import elements attatched to the definition element.
-		for (Import _import : model.getDefinitions().getImport()) {
-			inputs.put(_import.getName(), getComplexInputStructure(runtime, _import.getNamespace(), decisionServiceReferences));
-		}
-		 */
-
 		modelInput.setValue(inputs);
 
 		return modelInput;
@@ -0,0 +1,97 @@
+package de.materna.jdec.dmn;
+
+import java.lang.ref.WeakReference;
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A context of the trace that only stores the entries that have changed since its base context, see {@link DroolsTraceSink}.
+ * The context is read-only, like all contexts of a trace that has been built by {@link DroolsMemoryTraceSink}.
+ * <p>
+ * Single entries are looked up in the changes and their bases. The complete context is reconstructed when it is iterated,
+ * it is only kept weakly afterwards, so the trace doesn't hold a complete copy of every context.
+ * Since the base has usually been iterated just before, e.g. when the trace is serialized, only a single set of changes needs to be applied.
+ */
+class DroolsContextChanges extends AbstractMap<String, Object> {
+	private final Map<String, Object> base;
+	private final Map<String, Object> changes;
+	private WeakReference<Map<String, Object>> context = new WeakReference<>(null);
+
+	DroolsContextChanges(Map<String, Object> base, Map<String, Object> changes) {
+		this.base = base;
+		this.changes = changes;
+	}
+
+	@Override
+	public Set<Entry<String, Object>> entrySet() {
+		return resolve().entrySet();
+	}
+
+	@Override
+	public Object get(Object key) {
+		Map<String, Object> current = this;
+		while (current instanceof DroolsContextChanges) {
+			DroolsContextChanges contextChanges = (DroolsContextChanges) current;
+			if (contextChanges.changes.containsKey(key)) {
+				Object value = contextChanges.changes.get(key);
+				return value == DroolsTraceSink.REMOVED ? null : value;
+			}
+			current = contextChanges.base;
+		}
+		return current.get(key);
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		Map<String, Object> current = this;
+		while (current instanceof DroolsContextChanges) {
+			DroolsContextChanges contextChanges = (DroolsContextChanges) current;
+			if (contextChanges.changes.containsKey(key)) {
+				return contextChanges.changes.get(key) != DroolsTraceSink.REMOVED;
+			}
+			current = contextChanges.base;
+		}
+		return current.containsKey(key);
+	}
+
+	@Override
+	public int size() {
+		return resolve().size();
+	}
+
+	private Map<String, Object> resolve() {
+		Map<String, Object> resolvedContext = context.get();
+		if (resolvedContext != null) {
+			return resolvedContext;
+		}
+
+		// We follow the bases until we reach a complete context, the changes are applied in the order they have been recorded.
+		Deque<DroolsContextChanges> chain = new ArrayDeque<>();
+		Map<String, Object> current = this;
+		Map<String, Object> currentContext = null;
+		while (current instanceof DroolsContextChanges && (currentContext = ((DroolsContextChanges) current).context.get()) == null) {
+			chain.push((DroolsContextChanges) current);
+			current = ((DroolsContextChanges) current).base;
+		}
+
+		Map<String, Object> mutableContext = new HashMap<>(currentContext != null ? currentContext : current);
+		for (DroolsContextChanges contextChanges : chain) {
+			for (Entry<String, Object> entry : contextChanges.changes.entrySet()) {
+				if (entry.getValue() == DroolsTraceSink.REMOVED) {
+					mutableContext.remove(entry.getKey());
+					continue;
+				}
+				mutableContext.put(entry.getKey(), entry.getValue());
+			}
+		}
+
+		resolvedContext = Collections.unmodifiableMap(mutableContext);
+		context = new WeakReference<>(resolvedContext);
+		return resolvedContext;
+	}
+}
@@ -1,199 +1,440 @@
 package de.materna.jdec.dmn;
 
-import de.materna.jdec.DMNDecisionSession;
-import de.materna.jdec.model.Message;
 import de.materna.jdec.model.ModelAccess;
 import de.materna.jdec.model.ModelContext;
-import org.kie.dmn.api.core.DMNMessage;
 import org.kie.dmn.api.core.event.*;
+import org.kie.dmn.feel.runtime.FEELFunction;
 
 import java.util.*;
 
-public class DroolsDebugger {
-	private DMNDecisionSession decisionSession;
+/**
+ * Collects the trace of a single evaluation. It receives the events through the {@link DroolsDispatcher} and passes the trace on to a {@link DroolsTraceSink}.
+ */
+public class DroolsDebugger implements DMNRuntimeEventListener {
+	// Replaces the elements of a context collection that exceed the limit.
+	private static final Map<String, Object> TRUNCATED_VALUE = Collections.singletonMap(DroolsTraceLimits.TRUNCATED, DroolsTraceLimits.TRUNCATED);
+	// Every context that follows this many changes is recorded completely, so reading a single context never applies more changes than this.
+	private static final int MAX_LINKS = 32;
+
+	private String name;
+	private DroolsTraceLimits limits;
+
+	// The number of accesses and context entries that have been recorded.
+	private int nodes;
+	// If an access or context entry exceeds a limit, it is skipped together with its descendants.
+	// The counters contain the depth of the events that are currently skipped.
+	private int skippedAccesses;
+	private int skippedEntries;
+
+	private DroolsTraceSink sink;
+	// If the trace is passed on to another sink, it is not kept in memory.
+	private DroolsMemoryTraceSink memorySink;
+
+	private Deque<String> decisionStack = new ArrayDeque<>();
+	private Deque<ModelContext> contextStack;
+
+	// The accesses are only known to the sink, the stack points to the access that is currently evaluated.
+	// The log is represented by a frame as well, so the limits can be checked without asking the sink.
+	private int modelAccesses;
+	private Frame modelAccessLog = new Frame(DroolsTraceSink.NONE);
+	private Deque<Frame> modelAccessStack = new ArrayDeque<>();
+
+	// The accesses only store the changes of their contexts, the stack contains the last recorded context of every access that is currently evaluated.
+	private Deque<Snapshot> snapshotStack = new ArrayDeque<>();
+
+	/**
+	 * @param name Name of the executed model. The decisions and knowledge models of imported models are prefixed with their model name.
+	 */
+	public DroolsDebugger(String name) {
+		this(name, DroolsTraceLimits.UNLIMITED);
+	}
 
-	private Map<String, Map<String, Object>> decisions = new LinkedHashMap<>();
-	private Stack<String> decisionStack = new Stack<>();
-	private Stack<ModelContext> contextStack;
+	/**
+	 * @param name   Name of the executed model. The decisions and knowledge models of imported models are prefixed with their model name.
+	 * @param limits Limits of the trace, the parts that exceed them are replaced with markers.
+	 */
+	public DroolsDebugger(String name, DroolsTraceLimits limits) {
+		this(name, limits, new DroolsMemoryTraceSink());
+	}
 
-	private Stack<ModelAccess> modelAccessLog = new Stack<>();
+	/**
+	 * @param name   Name of the executed model. The decisions and knowledge models of imported models are prefixed with their model name.
+	 * @param limits Limits of the trace, the parts that exceed them are replaced with markers.
+	 * @param sink   Receives the trace while the model is evaluated.
+	 */
+	public DroolsDebugger(String name, DroolsTraceLimits limits, DroolsTraceSink sink) {
+		this.name = name;
+		this.limits = limits;
+		this.sink = sink;
+		this.memorySink = sink instanceof DroolsMemoryTraceSink ? (DroolsMemoryTraceSink) sink : null;
+	}
 
-	private DMNRuntimeEventListener listener;
+	@Override
+	public void beforeEvaluateDecisionService(BeforeEvaluateDecisionServiceEvent event) {
+		if (skipAccess(ModelAccess.ModelAccessType.MODEL)) {
+			return;
+		}
 
-	public DroolsDebugger(DMNDecisionSession decisionSession) {
-		this.decisionSession = decisionSession;
+		// FIX: If the model contains a decision service is executed, beforeEvaluateAll is not executed.
+		enterAccess(modelAccessLog, ModelAccess.ModelAccessType.MODEL, name, event.getResult().getContext().getAll());
 	}
 
-	public void start(String namespace, String name) {
-		listener = new DMNRuntimeEventListener() {
-			@Override
-			public void beforeEvaluateDecisionService(BeforeEvaluateDecisionServiceEvent event) {
-				// FIX: If the model contains a decision service is executed, beforeEvaluateAll is not executed.
-				synchronized (decisionSession.getRuntime()) {
-					modelAccessLog.push(new ModelAccess(ModelAccess.ModelAccessType.MODEL, name, DroolsHelper.cleanContext(event.getResult().getContext().getAll())));
-				}
-			}
+	@Override
+	public void beforeEvaluateAll(BeforeEvaluateAllEvent event) {
+		if (skipAccess(ModelAccess.ModelAccessType.MODEL)) {
+			return;
+		}
 
-			@Override
-			public void beforeEvaluateAll(BeforeEvaluateAllEvent event) {
-				synchronized (decisionSession.getRuntime()) {
-					modelAccessLog.push(new ModelAccess(ModelAccess.ModelAccessType.MODEL, name, DroolsHelper.cleanContext(event.getResult().getContext().getAll())));
-				}
-			}
+		enterAccess(modelAccessLog, ModelAccess.ModelAccessType.MODEL, name, event.getResult().getContext().getAll());
+	}
 
-			@Override
-			public void beforeEvaluateDecision(BeforeEvaluateDecisionEvent event) {
-				synchronized (decisionSession.getRuntime()) {
-					// If the model name of the evaluated decision does not match the main model name, we need to prefix it.
-					String modelName = event.getDecision().getModelName();
-					String decisionName = (modelName.equals(name) ? "" : modelName + ".") + event.getDecision().getName();
+	@Override
+	public void beforeEvaluateDecision(BeforeEvaluateDecisionEvent event) {
+		if (skipAccess(ModelAccess.ModelAccessType.DECISION)) {
+			return;
+		}
 
-					decisionStack.push(decisionName);
-					decisions.put(decisionStack.peek(), new LinkedHashMap<>());
-					contextStack = new Stack<>();
+		// If the model name of the evaluated decision does not match the main model name, we need to prefix it.
+		String modelName = event.getDecision().getModelName();
+		String decisionName = (modelName.equals(name) ? "" : modelName + ".") + event.getDecision().getName();
 
-					ModelAccess modelAccess = new ModelAccess(ModelAccess.ModelAccessType.DECISION, decisionName, DroolsHelper.cleanContext(event.getResult().getContext().getAll()));
-					modelAccessLog.peek().getChildren().add(modelAccess);
-					modelAccessLog.push(modelAccess);
-				}
-			}
+		decisionStack.push(decisionName);
+		sink.enterDecision(decisionName);
+		contextStack = new ArrayDeque<>();
 
-			@Override
-			public void beforeInvokeBKM(BeforeInvokeBKMEvent event) {
-				synchronized (decisionSession.getRuntime()) {
-					// If the model name of the evaluated knowledge model does not match the main model name, we need to prefix it.
-					String modelName = event.getBusinessKnowledgeModel().getModelName();
-					String knowledgeModelName = (modelName.equals(name) ? "" : modelName + ".") + event.getBusinessKnowledgeModel().getName();
+		enterAccess(modelAccessStack.peek(), ModelAccess.ModelAccessType.DECISION, decisionName, event.getResult().getContext().getAll());
+	}
 
-					ModelAccess modelAccess = new ModelAccess(ModelAccess.ModelAccessType.KNOWLEDGE_MODEL, knowledgeModelName, DroolsHelper.cleanContext(event.getResult().getContext().getAll()));
-					modelAccessLog.peek().getChildren().add(modelAccess);
-					modelAccessLog.push(modelAccess);
-				}
-			}
+	@Override
+	public void beforeInvokeBKM(BeforeInvokeBKMEvent event) {
+		if (skipAccess(ModelAccess.ModelAccessType.KNOWLEDGE_MODEL)) {
+			return;
+		}
 
-			@Override
-			public void beforeEvaluateContextEntry(BeforeEvaluateContextEntryEvent event) {
-				synchronized (decisionSession.getRuntime()) {
-					// We create a context and put it on the stack.
-					// The name allows us to set the value to a higher context level.
-					ModelContext context = new ModelContext();
-					context.setName(event.getVariableName());
-					context.setState(ModelContext.ModelContextState.UNDEFINED);
-					contextStack.push(context);
-				}
-			}
+		// If the model name of the evaluated knowledge model does not match the main model name, we need to prefix it.
+		String modelName = event.getBusinessKnowledgeModel().getModelName();
+		String knowledgeModelName = (modelName.equals(name) ? "" : modelName + ".") + event.getBusinessKnowledgeModel().getName();
 
-			@Override
-			public void afterEvaluateContextEntry(AfterEvaluateContextEntryEvent event) {
-				synchronized (decisionSession.getRuntime()) {
-					// When we leave the context, we remove it from the stack.
-					// If the value has not yet been set by a higher context level, we'll do it.
-					// Otherwise, we could overwrite context that we cannot see from this level.
-					ModelContext context = contextStack.pop();
-					if (context.getState() == ModelContext.ModelContextState.UNDEFINED) {
-						context.setValue(DroolsHelper.cleanOutput(event.getExpressionResult()));
-						context.setState(ModelContext.ModelContextState.VALUE);
-					}
-
-					// When we have reached the bottom context, we attach it to the decision.
-					if (contextStack.size() == 0) {
-						decisions.get(decisionStack.peek()).put(context.getName(), context.getValue());
-						return;
-					}
-
-					// If we haven't reached the bottom context, we attach the context to the parent context.
-					ModelContext parentContext = contextStack.peek();
-					// If this is the first value, we'll create a map.
-					if (parentContext.getState() == ModelContext.ModelContextState.UNDEFINED) {
-						Map<String, Object> value = new LinkedHashMap<>();
-						value.put(context.getName(), context.getValue());
-						parentContext.setValue(value);
-						parentContext.setState(ModelContext.ModelContextState.VALUE);
-						return;
-					}
-
-					// If there is already a value, we have to check if the key already exists in the map.
-					// If it does, we assume that it is a collection and convert it.
-					if (parentContext.getState() == ModelContext.ModelContextState.VALUE) {
-						Map<String, Object> currentParentContextValue = (Map<String, Object>) parentContext.getValue();
-						if (!currentParentContextValue.containsKey(context.getName())) {
-							currentParentContextValue.put(context.getName(), context.getValue());
-							return;
-						}
-
-						List<Map<String, Object>> parentContextValues = new LinkedList<>();
-
-						parentContextValues.add(currentParentContextValue);
-
-						Map<String, Object> newParentContextValue = new LinkedHashMap<>();
-						newParentContextValue.put(context.getName(), context.getValue());
-						parentContextValues.add(newParentContextValue);
-
-						parentContext.setValue(parentContextValues);
-						parentContext.setState(ModelContext.ModelContextState.VALUES);
-						return;
-					}
-
-					// If there is already a collection, we have to check if the key already exists in the newest element.
-					// If it does, we will create a new one.
-					List<Map<String, Object>> parentContextValues = (List<Map<String, Object>>) parentContext.getValue();
-
-					Map<String, Object> currentParentContextValue = parentContextValues.get(parentContextValues.size() - 1);
-					if (!currentParentContextValue.containsKey(context.getName())) {
-						currentParentContextValue.put(context.getName(), context.getValue());
-						return;
-					}
-
-					Map<String, Object> newParentContextValue = new LinkedHashMap<>();
-					newParentContextValue.put(context.getName(), context.getValue());
-					parentContextValues.add(newParentContextValue);
-				}
-			}
+		enterAccess(modelAccessStack.peek(), ModelAccess.ModelAccessType.KNOWLEDGE_MODEL, knowledgeModelName, event.getResult().getContext().getAll());
+	}
 
-			@Override
-			public void afterEvaluateDecision(AfterEvaluateDecisionEvent event) {
-				synchronized (decisionSession.getRuntime()) {
-					decisionStack.pop();
+	@Override
+	public void beforeEvaluateContextEntry(BeforeEvaluateContextEntryEvent event) {
+		if (skipEntry()) {
+			return;
+		}
+
+		// We create a context and put it on the stack.
+		// The name allows us to set the value to a higher context level.
+		ModelContext context = new ModelContext();
+		context.setName(event.getVariableName());
+		context.setState(ModelContext.ModelContextState.UNDEFINED);
+		contextStack.push(context);
+	}
 
-					modelAccessLog.peek().setExitContext(DroolsHelper.cleanContext(event.getResult().getContext().getAll()));
-					modelAccessLog.pop();
-				}
+	@Override
+	public void afterEvaluateContextEntry(AfterEvaluateContextEntryEvent event) {
+		if (skippedEntries > 0) {
+			skippedEntries--;
+			return;
+		}
+
+		// When we leave the context, we remove it from the stack.
+		// If the value has not yet been set by a higher context level, we'll do it.
+		// Otherwise, we could overwrite context that we cannot see from this level.
+		ModelContext context = contextStack.pop();
+		if (context.getState() == ModelContext.ModelContextState.UNDEFINED) {
+			context.setValue(limits.limitValue(DroolsHelper.cleanOutput(event.getExpressionResult())));
+			context.setState(ModelContext.ModelContextState.VALUE);
+		}
+
+		// When we have reached the bottom context, we attach it to the decision.
+		if (contextStack.size() == 0) {
+			sink.addContextEntry(decisionStack.peek(), context.getName(), context.getValue());
+			return;
+		}
+
+		// If we haven't reached the bottom context, we attach the context to the parent context.
+		ModelContext parentContext = contextStack.peek();
+		// If this is the first value, we'll create a map.
+		if (parentContext.getState() == ModelContext.ModelContextState.UNDEFINED) {
+			Map<String, Object> value = new LinkedHashMap<>();
+			value.put(context.getName(), context.getValue());
+			parentContext.setValue(value);
+			parentContext.setState(ModelContext.ModelContextState.VALUE);
+			return;
+		}
+
+		// If there is already a value, we have to check if the key already exists in the map.
+		// If it does, we assume that it is a collection and convert it.
+		if (parentContext.getState() == ModelContext.ModelContextState.VALUE) {
+			Map<String, Object> currentParentContextValue = (Map<String, Object>) parentContext.getValue();
+			if (!currentParentContextValue.containsKey(context.getName())) {
+				currentParentContextValue.put(context.getName(), context.getValue());
+				return;
 			}
 
-			@Override
-			public void afterInvokeBKM(AfterInvokeBKMEvent event) {
-				synchronized (decisionSession.getRuntime()) {
-					modelAccessLog.peek().setExitContext(DroolsHelper.cleanContext(event.getResult().getContext().getAll()));
-					modelAccessLog.pop();
-				}
+			List<Map<String, Object>> parentContextValues = new LinkedList<>();
+
+			parentContextValues.add(currentParentContextValue);
+			addContextValue(parentContextValues, context);
+
+			parentContext.setValue(parentContextValues);
+			parentContext.setState(ModelContext.ModelContextState.VALUES);
+			return;
+		}
+
+		// If there is already a collection, we have to check if the key already exists in the newest element.
+		// If it does, we will create a new one.
+		List<Map<String, Object>> parentContextValues = (List<Map<String, Object>>) parentContext.getValue();
+
+		Map<String, Object> currentParentContextValue = parentContextValues.get(parentContextValues.size() - 1);
+		if (currentParentContextValue == TRUNCATED_VALUE) {
+			return;
+		}
+		if (!currentParentContextValue.containsKey(context.getName())) {
+			currentParentContextValue.put(context.getName(), context.getValue());
+			return;
+		}
+
+		addContextValue(parentContextValues, context);
+	}
+
+	private void addContextValue(List<Map<String, Object>> parentContextValues, ModelContext context) {
+		// If the collection has reached its limit, the remaining elements are replaced with a single marker.
+		if (parentContextValues.size() >= limits.getMaxListLength()) {
+			parentContextValues.add(TRUNCATED_VALUE);
+			return;
+		}
+
+		Map<String, Object> newParentContextValue = new LinkedHashMap<>();
+		newParentContextValue.put(context.getName(), context.getValue());
+		parentContextValues.add(newParentContextValue);
+	}
+
+	@Override
+	public void afterEvaluateDecision(AfterEvaluateDecisionEvent event) {
+		if (skipExit()) {
+			return;
+		}
+
+		decisionStack.pop();
+
+		exitAccess(event.getResult().getContext().getAll(), true);
+	}
+
+	@Override
+	public void afterInvokeBKM(AfterInvokeBKMEvent event) {
+		if (skipExit()) {
+			return;
+		}
+
+		exitAccess(event.getResult().getContext().getAll(), true);
+	}
+
+	@Override
+	public void afterEvaluateDecisionService(AfterEvaluateDecisionServiceEvent event) {
+		if (skipExit()) {
+			return;
+		}
+
+		exitAccess(event.getResult().getContext().getAll(), false);
+	}
+
+	@Override
+	public void afterEvaluateAll(AfterEvaluateAllEvent event) {
+		if (skipExit()) {
+			return;
+		}
+
+		exitAccess(event.getResult().getContext().getAll(), false);
+	}
+
+	/**
+	 * Returns true if the access exceeds a limit or if its parent has been skipped.
+	 * The parent receives a single marker instead of the skipped accesses.
+	 */
+	private boolean skipAccess(ModelAccess.ModelAccessType accessType) {
+		if (skippedAccesses > 0) {
+			skippedAccesses++;
+			return true;
+		}
+
+		Frame parent = modelAccessStack.isEmpty() ? modelAccessLog : modelAccessStack.peek();
+		if (nodes < limits.getMaxNodes() && modelAccessStack.size() < limits.getMaxDepth() && parent.children < limits.getMaxListLength()) {
+			nodes++;
+			return false;
+		}
+
+		skippedAccesses = 1;
+		if (!parent.truncated) {
+			sink.enterAccess(modelAccesses++, parent.id, accessType, DroolsTraceLimits.TRUNCATED, DroolsTraceSink.NONE, false, Collections.emptyMap());
+			parent.children++;
+			parent.truncated = true;
+		}
+		return true;
+	}
+
+	private boolean skipExit() {
+		if (skippedAccesses > 0) {
+			skippedAccesses--;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns true if the context entry exceeds a limit or if it belongs to an access or context entry that has been skipped.
+	 * The decision receives a single marker instead of the skipped context entries.
+	 */
+	private boolean skipEntry() {
+		if (skippedAccesses > 0 || skippedEntries > 0) {
+			skippedEntries++;
+			return true;
+		}
+
+		if (nodes < limits.getMaxNodes() && contextStack.size() < limits.getMaxDepth()) {
+			nodes++;
+			return false;
+		}
+
+		skippedEntries = 1;
+		if (!decisionStack.isEmpty()) {
+			sink.addContextEntry(decisionStack.peek(), DroolsTraceLimits.TRUNCATED, DroolsTraceLimits.TRUNCATED);
+		}
+		return true;
+	}
+
+	/**
+	 * Adds an access to the parent and records its entry context as changes of the last recorded context, which is the entry context of the parent or the exit context of the previous sibling.
+	 */
+	private void enterAccess(Frame parent, ModelAccess.ModelAccessType accessType, String name, Map<String, Object> context) {
+		Map<String, Object> snapshot = copyContext(context);
+
+		Frame frame = new Frame(modelAccesses++);
+		Snapshot base = snapshotStack.peek();
+		int links;
+		if (base == null || base.links >= MAX_LINKS) {
+			sink.enterAccess(frame.id, parent.id, accessType, name, DroolsTraceSink.NONE, false, getChanges(Collections.emptyMap(), snapshot));
+			links = 0;
+		}
+		else {
+			sink.enterAccess(frame.id, parent.id, accessType, name, base.id, base.exit, getChanges(base.context, snapshot));
+			links = base.links + 1;
+		}
+		parent.children++;
+
+		modelAccessStack.push(frame);
+		snapshotStack.push(new Snapshot(frame.id, false, snapshot, links));
+	}
+
+	/**
+	 * Records the exit context as changes of the last recorded context, which is the entry context of the access or the exit context of its last child.
+	 *
+	 * @param pop The accesses and snapshots of decision services and models are not removed.
+	 */
+	private void exitAccess(Map<String, Object> context, boolean pop) {
+		Map<String, Object> snapshot = copyContext(context);
+
+		int id = pop ? modelAccessStack.pop().id : modelAccessStack.peek().id;
+		Snapshot base = pop ? snapshotStack.pop() : snapshotStack.peek();
+		int links;
+		if (base.links >= MAX_LINKS) {
+			sink.exitAccess(id, DroolsTraceSink.NONE, false, getChanges(Collections.emptyMap(), snapshot));
+			links = 0;
+		}
+		else {
+			sink.exitAccess(id, base.id, base.exit, getChanges(base.context, snapshot));
+			links = base.links + 1;
+		}
+
+		// The next sibling is based on this context.
+		Snapshot latest = snapshotStack.peek();
+		if (latest != null) {
+			latest.id = id;
+			latest.exit = true;
+			latest.context = snapshot;
+			latest.links = links;
+		}
+	}
+
+	/**
+	 * Copies the references of the context, functions can't be serialized and are skipped like in {@link DroolsHelper#cleanContext(Map)}.
+	 */
+	private static Map<String, Object> copyContext(Map<String, Object> context) {
+		Map<String, Object> snapshot = new HashMap<>();
+		for (Map.Entry<String, Object> entry : context.entrySet()) {
+			if (entry.getValue() instanceof FEELFunction) {
+				continue;
 			}
+			snapshot.put(entry.getKey(), entry.getValue());
+		}
+		return snapshot;
+	}
 
-			@Override
-			public void afterEvaluateDecisionService(AfterEvaluateDecisionServiceEvent event) {
-				synchronized (decisionSession.getRuntime()) {
-					modelAccessLog.peek().setExitContext(DroolsHelper.cleanContext(event.getResult().getContext().getAll()));
+	/**
+	 * Values of Drools are immutable, so an entry has only changed if it references a different value.
+	 * Only the changed values need to be cleaned and limited.
+	 */
+	private Map<String, Object> getChanges(Map<String, Object> base, Map<String, Object> snapshot) {
+		Map<String, Object> changes = null;
+		for (Map.Entry<String, Object> entry : snapshot.entrySet()) {
+			Object value = entry.getValue();
+			if (base.get(entry.getKey()) != value || (value == null && !base.containsKey(entry.getKey()))) {
+				if (changes == null) {
+					changes = new HashMap<>();
 				}
+				changes.put(entry.getKey(), limits.limitValue(DroolsHelper.cleanOutput(value)));
 			}
-
-			@Override
-			public void afterEvaluateAll(AfterEvaluateAllEvent event) {
-				synchronized (decisionSession.getRuntime()) {
-					modelAccessLog.peek().setExitContext(DroolsHelper.cleanContext(event.getResult().getContext().getAll()));
+		}
+		for (String key : base.keySet()) {
+			if (!snapshot.containsKey(key)) {
+				if (changes == null) {
+					changes = new HashMap<>();
 				}
+				changes.put(key, DroolsTraceSink.REMOVED);
 			}
-		};
-		decisionSession.getRuntime().addListener(listener);
+		}
+		return changes == null ? Collections.emptyMap() : changes;
 	}
 
-	public void stop() {
-		decisionSession.getRuntime().removeListener(listener);
+	/**
+	 * Returns the context entries of the decisions, they are empty but mutable if the trace has been passed on to another sink.
+	 */
+	public Map<String, Map<String, Object>> getDecisions() {
+		return memorySink == null ? new HashMap<>() : memorySink.getDecisions();
 	}
 
-	public Map<String, Map<String, Object>> getDecisions() {
-		return decisions;
+	/**
+	 * Returns the accesses of the models, they are empty but mutable if the trace has been passed on to another sink.
+	 */
+	public List<ModelAccess> getModelAccessLog() {
+		return memorySink == null ? new LinkedList<>() : memorySink.getModelAccessLog();
+	}
+
+	private static class Frame {
+		private final int id;
+		private int children;
+		// True if the last child is a marker.
+		private boolean truncated;
+
+		private Frame(int id) {
+			this.id = id;
+		}
 	}
 
-	public Stack<ModelAccess> getModelAccessLog() {
-		return modelAccessLog;
+	private static class Snapshot {
+		private int id;
+		private boolean exit;
+		private Map<String, Object> context;
+		// The number of changes that need to be applied to reach this context from a complete one.
+		private int links;
+
+		private Snapshot(int id, boolean exit, Map<String, Object> context, int links) {
+			this.id = id;
+			this.exit = exit;
+			this.context = context;
+			this.links = links;
+		}
 	}
 }
@@ -0,0 +1,116 @@
+package de.materna.jdec.dmn;
+
+import org.kie.dmn.api.core.event.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Drools notifies the listeners of a runtime without any synchronization, so adding and removing listeners while other evaluations are running is not safe.
+ * The dispatcher is registered once and forwards every event to the listeners of the evaluation that runs on the current thread.
+ * This works because Drools fires all events of an evaluation on the thread that has started it.
+ * <p>
+ * Every listener that is added must be removed in a finally block after the evaluation, otherwise it would receive the events of later evaluations on the same thread.
+ * <p>
+ * A failing listener doesn't abort the evaluation, Drools catches and logs the exceptions of its listeners as well.
+ * The failure is logged and the event is still forwarded to the other listeners, so the messages and the trace of the evaluation stay complete.
+ */
+public class DroolsDispatcher implements DMNRuntimeEventListener {
+	private static final Logger log = LoggerFactory.getLogger(DroolsDispatcher.class);
+
+	// The list is kept for the lifetime of the thread, so adding a listener doesn't allocate anything.
+	private final ThreadLocal<List<DMNRuntimeEventListener>> listeners = ThreadLocal.withInitial(() -> new ArrayList<>(2));
+
+	public void addListener(DMNRuntimeEventListener listener) {
+		listeners.get().add(listener);
+	}
+
+	public void removeListener(DMNRuntimeEventListener listener) {
+		listeners.get().remove(listener);
+	}
+
+	@Override
+	public void beforeEvaluateDecision(BeforeEvaluateDecisionEvent event) {
+		dispatch(event, DMNRuntimeEventListener::beforeEvaluateDecision);
+	}
+
+	@Override
+	public void afterEvaluateDecision(AfterEvaluateDecisionEvent event) {
+		dispatch(event, DMNRuntimeEventListener::afterEvaluateDecision);
+	}
+
+	@Override
+	public void beforeEvaluateBKM(BeforeEvaluateBKMEvent event) {
+		dispatch(event, DMNRuntimeEventListener::beforeEvaluateBKM);
+	}
+
+	@Override
+	public void afterEvaluateBKM(AfterEvaluateBKMEvent event) {
+		dispatch(event, DMNRuntimeEventListener::afterEvaluateBKM);
+	}
+
+	@Override
+	public void beforeEvaluateContextEntry(BeforeEvaluateContextEntryEvent event) {
+		dispatch(event, DMNRuntimeEventListener::beforeEvaluateContextEntry);
+	}
+
+	@Override
+	public void afterEvaluateContextEntry(AfterEvaluateContextEntryEvent event) {
+		dispatch(event, DMNRuntimeEventListener::afterEvaluateContextEntry);
+	}
+
+	@Override
+	public void beforeEvaluateDecisionTable(BeforeEvaluateDecisionTableEvent event) {
+		dispatch(event, DMNRuntimeEventListener::beforeEvaluateDecisionTable);
+	}
+
+	@Override
+	public void afterEvaluateDecisionTable(AfterEvaluateDecisionTableEvent event) {
+		dispatch(event, DMNRuntimeEventListener::afterEvaluateDecisionTable);
+	}
+
+	@Override
+	public void beforeEvaluateDecisionService(BeforeEvaluateDecisionServiceEvent event) {
+		dispatch(event, DMNRuntimeEventListener::beforeEvaluateDecisionService);
+	}
+
+	@Override
+	public void afterEvaluateDecisionService(AfterEvaluateDecisionServiceEvent event) {
+		dispatch(event, DMNRuntimeEventListener::afterEvaluateDecisionService);
+	}
+
+	@Override
+	public void beforeInvokeBKM(BeforeInvokeBKMEvent event) {
+		dispatch(event, DMNRuntimeEventListener::beforeInvokeBKM);
+	}
+
+	@Override
+	public void afterInvokeBKM(AfterInvokeBKMEvent event) {
+		dispatch(event, DMNRuntimeEventListener::afterInvokeBKM);
+	}
+
+	@Override
+	public void beforeEvaluateAll(BeforeEvaluateAllEvent event) {
+		dispatch(event, DMNRuntimeEventListener::beforeEvaluateAll);
+	}
+
+	@Override
+	public void afterEvaluateAll(AfterEvaluateAllEvent event) {
+		dispatch(event, DMNRuntimeEventListener::afterEvaluateAll);
+	}
+
+	private <E> void dispatch(E event, BiConsumer<DMNRuntimeEventListener, E> method) {
+		List<DMNRuntimeEventListener> currentListeners = listeners.get();
+		for (DMNRuntimeEventListener listener : currentListeners) {
+			try {
+				method.accept(listener, event);
+			}
+			catch (RuntimeException e) {
+				log.error("The listener {} has failed to process the event {}.", listener, event, e);
+			}
+		}
+	}
+}
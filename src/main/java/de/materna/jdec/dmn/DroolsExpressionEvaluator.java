@@ -0,0 +1,149 @@
+package de.materna.jdec.dmn;
+
+import de.materna.jdec.model.Message;
+import org.kie.dmn.feel.FEEL;
+import org.kie.dmn.feel.lang.CompiledExpression;
+import org.kie.dmn.feel.lang.CompilerContext;
+import org.kie.dmn.feel.lang.FEELProfile;
+import org.kie.dmn.feel.parser.feel11.profiles.KieExtendedFEELProfile;
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Evaluates FEEL expressions with a single engine and keeps the most recently used compiled expressions.
+ * Compiled expressions are only reused if the inputs have the same names and types, because the compiler resolves the types of the inputs.
+ */
+public class DroolsExpressionEvaluator {
+	private final FEEL feel;
+	private final Map<String, CompiledExpression> expressions;
+
+	// The engine notifies its listeners without any synchronization, so the listener is registered once.
+	// It adds the messages to the list of the evaluation that runs on the current thread, see DroolsDispatcher.
+	private final ThreadLocal<List<Message>> messages = new ThreadLocal<>();
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	/**
+	 * @param capacity Maximum number of compiled expressions that are kept.
+	 */
+	public DroolsExpressionEvaluator(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("The cache needs to contain at least one expression.");
+		}
+
+		List<FEELProfile> profiles = new ArrayList<>();
+		profiles.add(new KieExtendedFEELProfile());
+		feel = FEEL.newInstance(DroolsExpressionEvaluator.class.getClassLoader(), profiles);
+
+		feel.addListener(feelEvent -> {
+			List<Message> currentMessages = messages.get();
+			if (currentMessages != null) {
+				currentMessages.add(new Message(feelEvent.getMessage(), DroolsHelper.convertFEELEventLevel(feelEvent.getSeverity())));
+			}
+		});
+
+		// The map is ordered by access, so the least recently used expression is removed first.
+		expressions = new LinkedHashMap<String, CompiledExpression>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CompiledExpression> eldest) {
+				if (size() > capacity) {
+					evictions.increment();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * @param inputs   Inputs that have already been enriched, see {@link DroolsHelper#enrichInput(Object)}.
+	 * @param messages List that receives the messages of the compilation and the evaluation.
+	 */
+	public Object evaluate(String expression, Map<String, Object> inputs, List<Message> messages) {
+		if (inputs == null) {
+			inputs = Collections.emptyMap();
+		}
+
+		this.messages.set(messages);
+		try {
+			return feel.evaluate(compile(expression, inputs, messages), inputs);
+		}
+		finally {
+			this.messages.remove();
+		}
+	}
+
+	private CompiledExpression compile(String expression, Map<String, Object> inputs, List<Message> messages) {
+		String key = getKey(expression, inputs);
+
+		CompiledExpression compiledExpression;
+		synchronized (expressions) {
+			compiledExpression = expressions.get(key);
+		}
+		if (compiledExpression != null) {
+			hits.increment();
+			return compiledExpression;
+		}
+		misses.increment();
+
+		// The inputs are added the same way FEEL.evaluate() does it, so the compiler resolves the same types.
+		CompilerContext context = feel.newCompilerContext();
+		for (Map.Entry<String, Object> entry : inputs.entrySet()) {
+			context.addInputVariable(entry.getKey(), entry.getValue());
+		}
+
+		int previousSize = messages.size();
+		compiledExpression = feel.compile(expression, context);
+
+		// If the compilation has reported any messages, we don't keep the expression.
+		// Otherwise, the messages would be missing from the next evaluations.
+		if (messages.size() == previousSize) {
+			synchronized (expressions) {
+				expressions.put(key, compiledExpression);
+			}
+		}
+
+		return compiledExpression;
+	}
+
+	private String getKey(String expression, Map<String, Object> inputs) {
+		StringBuilder key = new StringBuilder(expression);
+		for (Map.Entry<String, Object> entry : inputs.entrySet()) {
+			key.append('\u0000').append(entry.getKey()).append('\u0000').append(entry.getValue() == null ? "null" : entry.getValue().getClass().getName());
+		}
+		return key.toString();
+	}
+
+	/**
+	 * Returns the number of evaluations that have reused a compiled expression.
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * Returns the number of evaluations that have compiled the expression.
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * Returns the number of compiled expressions that have been removed because the cache was full.
+	 */
+	public long getEvictions() {
+		return evictions.sum();
+	}
+
+	/**
+	 * Returns the number of compiled expressions that are currently kept.
+	 */
+	public int getSize() {
+		synchronized (expressions) {
+			return expressions.size();
+		}
+	}
+}
@@ -0,0 +1,246 @@
+package de.materna.jdec.dmn;
+
+import de.materna.jdec.model.ModelAccess;
+import de.materna.jdec.serialization.SerializationHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Appends the trace to a file in a compact binary format, so a long evaluation doesn't need to hold its trace in memory.
+ * The file is written through memory-mapped segments, a new segment is mapped behind the previous one when it is full.
+ * The trace can be read with {@link DroolsTraceReader}.
+ * <p>
+ * A record consists of its type, the length of its payload and the payload.
+ * The file is truncated to the written records when the sink is closed. If the process stops before, the unused part of the last segment is filled with zeros,
+ * so the trace ends with the first record of type 0.
+ * <p>
+ * Java can't unmap a segment explicitly, so the segments that have been replaced stay mapped until they are garbage collected.
+ * The segment size should therefore be large compared to a record, so a trace doesn't hold many mappings.
+ * Writing a record throws an {@link UncheckedIOException} if the file can't be written, so it can be told apart from a failure of the evaluation.
+ */
+public class DroolsFileTraceSink implements DroolsTraceSink, Closeable {
+	private static final Logger log = LoggerFactory.getLogger(DroolsFileTraceSink.class);
+
+	static final int MAGIC = 0x4A445452;
+	static final byte VERSION = 1;
+
+	static final byte RECORD_END = 0;
+	static final byte RECORD_ENTER_ACCESS = 1;
+	static final byte RECORD_EXIT_ACCESS = 2;
+	static final byte RECORD_ENTER_DECISION = 3;
+	static final byte RECORD_CONTEXT_ENTRY = 4;
+
+	static final byte VALUE_NULL = 0;
+	static final byte VALUE_TRUE = 1;
+	static final byte VALUE_FALSE = 2;
+	static final byte VALUE_STRING = 3;
+	static final byte VALUE_NUMBER = 4;
+	static final byte VALUE_LIST = 5;
+	static final byte VALUE_MAP = 6;
+	static final byte VALUE_REMOVED = 7;
+	static final byte VALUE_JSON = 8;
+
+	private static final int DEFAULT_SEGMENT_SIZE = 1024 * 1024;
+
+	private FileChannel channel;
+	private int segmentSize;
+	// Position of the current segment in the file.
+	private long segmentPosition;
+	private MappedByteBuffer segment;
+
+	// The payload of a record is encoded into a buffer first, so its length is known before it is written.
+	private RecordBuffer record = new RecordBuffer();
+	private DataOutputStream output = new DataOutputStream(record);
+
+	public DroolsFileTraceSink(Path path) throws IOException {
+		this(path, DEFAULT_SEGMENT_SIZE);
+	}
+
+	/**
+	 * An existing file is overwritten.
+	 *
+	 * @param segmentSize Size of the memory-mapped segments in bytes.
+	 */
+	public DroolsFileTraceSink(Path path, int segmentSize) throws IOException {
+		if (segmentSize < 64) {
+			throw new IllegalArgumentException("The segments need to be at least 64 bytes.");
+		}
+
+		this.segmentSize = segmentSize;
+
+		channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+		segment.putInt(MAGIC);
+		segment.put(VERSION);
+	}
+
+	@Override
+	public void enterAccess(int id, int parent, ModelAccess.ModelAccessType accessType, String name, int base, boolean exit, Map<String, Object> changes) {
+		try {
+			output.writeInt(id);
+			output.writeInt(parent);
+			output.writeByte(accessType.ordinal());
+			writeString(name);
+			output.writeInt(base);
+			output.writeBoolean(exit);
+			writeValue(changes);
+			writeRecord(RECORD_ENTER_ACCESS);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void exitAccess(int id, int base, boolean exit, Map<String, Object> changes) {
+		try {
+			output.writeInt(id);
+			output.writeInt(base);
+			output.writeBoolean(exit);
+			writeValue(changes);
+			writeRecord(RECORD_EXIT_ACCESS);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void enterDecision(String decisionName) {
+		try {
+			writeString(decisionName);
+			writeRecord(RECORD_ENTER_DECISION);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void addContextEntry(String decisionName, String name, Object value) {
+		try {
+			writeString(decisionName);
+			writeString(name);
+			writeValue(value);
+			writeRecord(RECORD_CONTEXT_ENTRY);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Flushes the written segments to the file and removes the unused part of the last segment, the trace must not be written afterwards.
+	 */
+	@Override
+	public void close() throws IOException {
+		segment.force();
+		try {
+			channel.truncate(segmentPosition + segment.position());
+		}
+		catch (IOException e) {
+			// Some platforms don't allow to truncate a file that is still mapped, the reader stops at the zeros anyway.
+			log.debug("Could not truncate the trace file", e);
+		}
+		finally {
+			channel.close();
+		}
+	}
+
+	private void writeRecord(byte type) throws IOException {
+		int length = record.size() + 5;
+		if (segment.remaining() < length) {
+			// The next segment starts behind the written part of the current one, so the file doesn't contain gaps.
+			segmentPosition += segment.position();
+			segment.force();
+			segment = channel.map(FileChannel.MapMode.READ_WRITE, segmentPosition, Math.max(segmentSize, length));
+		}
+
+		segment.put(type);
+		segment.putInt(record.size());
+		record.copyTo(segment);
+		record.reset();
+	}
+
+	private void writeString(String value) throws IOException {
+		if (value == null) {
+			output.writeInt(-1);
+			return;
+		}
+
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		output.writeInt(bytes.length);
+		output.write(bytes);
+	}
+
+	/**
+	 * Writes a value that has been cleaned by {@link DroolsHelper#cleanOutput(Object)}.
+	 * Values that aren't represented by JSON types directly are stored as JSON, like in the serialized {@link de.materna.jdec.model.ExecutionResult}.
+	 */
+	private void writeValue(Object value) throws IOException {
+		if (value == null) {
+			output.writeByte(VALUE_NULL);
+			return;
+		}
+		if (value == DroolsTraceSink.REMOVED) {
+			output.writeByte(VALUE_REMOVED);
+			return;
+		}
+		if (value instanceof Boolean) {
+			output.writeByte((Boolean) value ? VALUE_TRUE : VALUE_FALSE);
+			return;
+		}
+		if (value instanceof String) {
+			output.writeByte(VALUE_STRING);
+			writeString((String) value);
+			return;
+		}
+		if (value instanceof BigDecimal) {
+			output.writeByte(VALUE_NUMBER);
+			writeString(value.toString());
+			return;
+		}
+		if (value instanceof List) {
+			List<?> list = (List<?>) value;
+			output.writeByte(VALUE_LIST);
+			output.writeInt(list.size());
+			for (Object entry : list) {
+				writeValue(entry);
+			}
+			return;
+		}
+		if (value instanceof Map) {
+			Map<?, ?> map = (Map<?, ?>) value;
+			output.writeByte(VALUE_MAP);
+			output.writeInt(map.size());
+			for (Map.Entry<?, ?> entry : map.entrySet()) {
+				writeString(String.valueOf(entry.getKey()));
+				writeValue(entry.getValue());
+			}
+			return;
+		}
+		output.writeByte(VALUE_JSON);
+		writeString(SerializationHelper.getInstance().toJSON(value));
+	}
+
+	private static class RecordBuffer extends ByteArrayOutputStream {
+		private void copyTo(ByteBuffer buffer) {
+			buffer.put(buf, 0, count);
+		}
+	}
+}
@@ -1,10 +1,7 @@
 package de.materna.jdec.dmn;
 
 import de.materna.jdec.model.Message;
-import de.materna.jdec.model.ModelNotFoundException;
 import org.kie.dmn.api.core.DMNMessage;
-import org.kie.dmn.api.core.DMNModel;
-import org.kie.dmn.api.core.DMNRuntime;
 import org.kie.dmn.api.core.DMNUnaryTest;
 import org.kie.dmn.api.feel.runtime.events.FEELEvent;
 import org.kie.dmn.feel.lang.types.impl.ComparablePeriod;
@@ -17,19 +14,59 @@ import java.time.format.DateTimeFormatter;
 import java.time.temporal.TemporalAccessor;
 import java.time.temporal.TemporalQueries;
 import java.util.*;
+import java.util.function.UnaryOperator;
 
 public class DroolsHelper {
 	private static final Logger log = LoggerFactory.getLogger(DroolsHelper.class);
 
-	public static DMNModel getModel(DMNRuntime runtime, String namespace) throws ModelNotFoundException {
-		Optional<DMNModel> optionalModel = runtime.getModels().stream().filter(model -> model.getNamespace().equals(namespace)).findFirst();
-		if (!optionalModel.isPresent()) {
-			throw new ModelNotFoundException();
-		}
-
-		return optionalModel.get();
+	/**
+	 * Types of values that need to be handled differently by cleanOutput.
+	 */
+	private enum OutputType {
+		LIST, MAP, LOCAL_DATE, LOCAL_TIME, LOCAL_DATE_TIME, TEMPORAL, DURATION, COMPARABLE_PERIOD, PERIOD, FUNCTION, INTERNAL, VALUE
 	}
 
+	// Most outputs contain only a few different classes, so the type of a class is only determined once.
+	private static final ClassValue<OutputType> outputTypes = new ClassValue<OutputType>() {
+		@Override
+		protected OutputType computeValue(Class<?> type) {
+			if (List.class.isAssignableFrom(type)) {
+				return OutputType.LIST;
+			}
+			if (Map.class.isAssignableFrom(type)) {
+				return OutputType.MAP;
+			}
+			if (type == LocalDate.class) {
+				return OutputType.LOCAL_DATE;
+			}
+			if (type == LocalTime.class) {
+				return OutputType.LOCAL_TIME;
+			}
+			if (type == LocalDateTime.class) {
+				return OutputType.LOCAL_DATE_TIME;
+			}
+			if (TemporalAccessor.class.isAssignableFrom(type)) {
+				return OutputType.TEMPORAL;
+			}
+			if (Duration.class.isAssignableFrom(type)) {
+				return OutputType.DURATION;
+			}
+			if (ComparablePeriod.class.isAssignableFrom(type)) {
+				return OutputType.COMPARABLE_PERIOD;
+			}
+			if (Period.class.isAssignableFrom(type)) {
+				return OutputType.PERIOD;
+			}
+			if (FEELFunction.class.isAssignableFrom(type)) {
+				return OutputType.FUNCTION;
+			}
+			if (type.getName().startsWith("org.kie.dmn")) {
+				return OutputType.INTERNAL;
+			}
+			return OutputType.VALUE;
+		}
+	};
+
 	/**
 	 * Drools does not return a correctly typed list of allowed values
 	 * This method converts the list of allowed values manually
@@ -58,28 +95,75 @@ public class DroolsHelper {
 		return convertedOptions;
 	}
 
-	public static Object enrichInput(Object result) {
-		if (result instanceof Map) {
-			Map<String, Object> typedResult = (Map<String, Object>) result;
+	/**
+	 * Applies the function to all values of the map.
+	 * The map is only copied if a value changes, otherwise the given instance is returned.
+	 * The copy keeps the order and the keys of the entries.
+	 */
+	public static <K> Map<K, Object> transformValues(Map<K, ?> map, UnaryOperator<Object> function) {
+		Map<K, Object> transformedMap = null;
+		for (Map.Entry<K, ?> entry : map.entrySet()) {
+			Object transformedValue = function.apply(entry.getValue());
+			if (transformedMap == null && transformedValue != entry.getValue()) {
+				// This is the first value that has changed, we need to copy the values that we have already visited.
+				transformedMap = new LinkedHashMap<>();
+				for (Map.Entry<K, ?> previousEntry : map.entrySet()) {
+					if (previousEntry == entry) {
+						break;
+					}
+					transformedMap.put(previousEntry.getKey(), previousEntry.getValue());
+				}
+			}
+			if (transformedMap != null) {
+				transformedMap.put(entry.getKey(), transformedValue);
+			}
+		}
+		return transformedMap == null ? (Map<K, Object>) map : transformedMap;
+	}
 
-			Map<String, Object> cleanedResults = new LinkedHashMap<>();
-			for (Map.Entry<String, Object> entry : typedResult.entrySet()) {
-				cleanedResults.put(entry.getKey(), enrichInput(entry.getValue()));
+	/**
+	 * Applies the function to all values of the list.
+	 * The list is only copied if a value changes, otherwise the given instance is returned.
+	 */
+	public static List<Object> transformValues(List<?> list, UnaryOperator<Object> function) {
+		List<Object> transformedList = null;
+		int index = 0;
+		for (Object value : list) {
+			Object transformedValue = function.apply(value);
+			if (transformedList == null && transformedValue != value) {
+				// This is the first value that has changed, we need to copy the values that we have already visited.
+				transformedList = new ArrayList<>(list.size());
+				transformedList.addAll(list.subList(0, index));
+			}
+			if (transformedList != null) {
+				transformedList.add(transformedValue);
 			}
-			return cleanedResults;
+			index++;
+		}
+		return transformedList == null ? (List<Object>) list : transformedList;
+	}
+
+	/**
+	 * Converts the strings that are prefixed with a temporal marker into their temporal values.
+	 * Maps and lists are only copied if one of their values needs to be converted, otherwise the given instance is returned.
+	 * Therefore, the result can share maps and lists with the input, the input must not be modified while the result is used.
+	 */
+	public static Object enrichInput(Object result) {
+		if (result instanceof Map) {
+			return transformValues((Map<?, ?>) result, DroolsHelper::enrichInput);
 		}
 
 		if (result instanceof List) {
-			List<Object> typedResult = (List<Object>) result;
-			List<Object> cleanedResults = new ArrayList<>();
-			for (Object entry : typedResult) {
-				cleanedResults.add(enrichInput(entry));
-			}
-			return cleanedResults;
+			return transformValues((List<?>) result, DroolsHelper::enrichInput);
 		}
 
 		if (result instanceof String) {
 			String typedResult = (String) result;
+			// Most strings don't contain a marker, a single comparison allows us to skip them.
+			if (typedResult.isEmpty() || typedResult.charAt(0) < '\uE15A' || typedResult.charAt(0) > '\uE15E') {
+				return result;
+			}
+
 			if (typedResult.startsWith("\uE15A")) {
 				return LocalDate.parse(typedResult.substring(1), DateTimeFormatter.ISO_DATE);
 			}
@@ -112,82 +196,72 @@ public class DroolsHelper {
 
 	/**
 	 * We need to remove all functions because serializing them is not possible.
+	 * Maps and lists are only copied if one of their values needs to be replaced, otherwise the given instance is returned.
+	 * Therefore, the result can share maps and lists with the results of Drools, it must not be modified.
 	 */
 	public static Object cleanOutput(Object result) {
 		if (result == null) {
 			return null;
 		}
 
-		if (result instanceof List) {
-			List<Object> typedResult = (List<Object>) result;
-			List<Object> cleanedResults = new ArrayList<>();
-			for (Object entry : typedResult) {
-				cleanedResults.add(cleanOutput(entry));
-			}
-			return cleanedResults;
-		}
-
-		if (result instanceof Map) {
-			Map<String, Object> typedResult = (Map<String, Object>) result;
-
-			Map<String, Object> cleanedResults = new LinkedHashMap<>();
-			for (Map.Entry<String, Object> entry : typedResult.entrySet()) {
-				cleanedResults.put(entry.getKey(), cleanOutput(entry.getValue()));
-			}
-			return cleanedResults;
-		}
-
-		if (result instanceof TemporalAccessor) {
-			TemporalAccessor typedResult = (TemporalAccessor) result;
+		switch (outputTypes.get(result.getClass())) {
+			case LIST:
+				return transformValues((List<?>) result, DroolsHelper::cleanOutput);
+			case MAP:
+				return transformValues((Map<?, ?>) result, DroolsHelper::cleanOutput);
+			// The local types don't contain a zone, so we can format them without querying them.
+			case LOCAL_DATE:
+				return "\uE15A" + ((LocalDate) result).format(DateTimeFormatter.ISO_DATE);
+			case LOCAL_TIME:
+				return "\uE15B" + ((LocalTime) result).format(DateTimeFormatter.ISO_TIME);
+			case LOCAL_DATE_TIME:
+				return "\uE15C" + ((LocalDateTime) result).format(DateTimeFormatter.ISO_DATE_TIME);
+			case TEMPORAL: {
+				TemporalAccessor typedResult = (TemporalAccessor) result;
 
-			ZoneId zoneId = typedResult.query(TemporalQueries.zone());
-			LocalDate localDate = typedResult.query(TemporalQueries.localDate());
-			LocalTime localTime = typedResult.query(TemporalQueries.localTime());
-			if (zoneId == null) {
-				if (localDate != null && localTime == null) {
-					return "\uE15A" + localDate.format(DateTimeFormatter.ISO_DATE);
-				}
-				if (localDate == null && localTime != null) {
-					return "\uE15B" + localTime.format(DateTimeFormatter.ISO_TIME);
+				ZoneId zoneId = typedResult.query(TemporalQueries.zone());
+				LocalDate localDate = typedResult.query(TemporalQueries.localDate());
+				LocalTime localTime = typedResult.query(TemporalQueries.localTime());
+				if (zoneId == null) {
+					if (localDate != null && localTime == null) {
+						return "\uE15A" + localDate.format(DateTimeFormatter.ISO_DATE);
+					}
+					if (localDate == null && localTime != null) {
+						return "\uE15B" + localTime.format(DateTimeFormatter.ISO_TIME);
+					}
+					if (localDate != null && localTime != null) {
+						return "\uE15C" + LocalDateTime.of(localDate, localTime).format(DateTimeFormatter.ISO_DATE_TIME);
+					}
 				}
-				if (localDate != null && localTime != null) {
-					return "\uE15C" + LocalDateTime.of(localDate, localTime).format(DateTimeFormatter.ISO_DATE_TIME);
-				}
-			}
-			else {
-				if (localDate == null && localTime != null) {
-					return "\uE15B" + OffsetTime.of(localTime, zoneId.getRules().getOffset(Instant.now())).format(DateTimeFormatter.ISO_OFFSET_TIME);
-				}
-				if (localDate != null && localTime == null) {
-					return "\uE15C" + ZonedDateTime.of(localDate, LocalTime.of(0, 0), zoneId).format(DateTimeFormatter.ISO_ZONED_DATE_TIME);
-				}
-				if (localDate != null && localTime != null) {
-					return "\uE15C" + ZonedDateTime.of(localDate, localTime, zoneId).format(DateTimeFormatter.ISO_ZONED_DATE_TIME);
+				else {
+					if (localDate == null && localTime != null) {
+						return "\uE15B" + OffsetTime.of(localTime, zoneId.getRules().getOffset(Instant.now())).format(DateTimeFormatter.ISO_OFFSET_TIME);
+					}
+					if (localDate != null && localTime == null) {
+						return "\uE15C" + ZonedDateTime.of(localDate, LocalTime.of(0, 0), zoneId).format(DateTimeFormatter.ISO_ZONED_DATE_TIME);
+					}
+					if (localDate != null && localTime != null) {
+						return "\uE15C" + ZonedDateTime.of(localDate, localTime, zoneId).format(DateTimeFormatter.ISO_ZONED_DATE_TIME);
+					}
 				}
-			}
-		}
-		if (result instanceof Duration) {
-			Duration typedResult = (Duration) result;
-			return "\uE15D" + typedResult;
-		}
-		// Drools is using a custom period wrapper, we need to support it as well.
-		if (result instanceof ComparablePeriod) {
-			ComparablePeriod typedResult = (ComparablePeriod) result;
-			return "\uE15E" + typedResult.asPeriod().toString();
-		}
-		if (result instanceof Period) {
-			Period typedResult = (Period) result;
-			return "\uE15E" + typedResult;
-		}
 
-		if (result instanceof FEELFunction) {
-			return "__FUNCTION_DEFINITION__";
-		}
-		if (result.getClass().getName().startsWith("org.kie.dmn")) {
-			return "__INTERNAL__";
+				// Temporal values without a date or time are treated like any other value.
+				return result.getClass().getName().startsWith("org.kie.dmn") ? "__INTERNAL__" : result;
+			}
+			case DURATION:
+				return "\uE15D" + result;
+			// Drools is using a custom period wrapper, we need to support it as well.
+			case COMPARABLE_PERIOD:
+				return "\uE15E" + ((ComparablePeriod) result).asPeriod().toString();
+			case PERIOD:
+				return "\uE15E" + result;
+			case FUNCTION:
+				return "__FUNCTION_DEFINITION__";
+			case INTERNAL:
+				return "__INTERNAL__";
+			default:
+				return result;
 		}
-
-		return result;
 	}
 
 	/**
@@ -0,0 +1,115 @@
+package de.materna.jdec.dmn;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts durations in nanoseconds without locking, so it can be updated by many evaluations in parallel.
+ * Every power of two is split into 8 buckets, so a percentile is at most 12.5% larger than the recorded duration.
+ * Durations below 16 nanoseconds are counted exactly.
+ */
+public class DroolsHistogram {
+	private static final int LINEAR_BUCKETS = 16;
+	private static final int SUB_BUCKET_BITS = 3;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	// The largest exponent of a positive long is 62.
+	private static final int BUCKETS = LINEAR_BUCKETS + (62 - 4 + 1) * SUB_BUCKETS;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder sum = new LongAdder();
+	private final AtomicLong max = new AtomicLong();
+
+	public void record(long duration) {
+		if (duration < 0) {
+			duration = 0;
+		}
+
+		buckets.incrementAndGet(getIndex(duration));
+		count.increment();
+		sum.add(duration);
+
+		long currentMax;
+		while (duration > (currentMax = max.get())) {
+			if (max.compareAndSet(currentMax, duration)) {
+				break;
+			}
+		}
+	}
+
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * Returns the total duration of all recordings in nanoseconds.
+	 */
+	public long getSum() {
+		return sum.sum();
+	}
+
+	public long getMax() {
+		return max.get();
+	}
+
+	public double getMean() {
+		long currentCount = count.sum();
+		return currentCount == 0 ? 0 : (double) sum.sum() / currentCount;
+	}
+
+	/**
+	 * Returns the duration in nanoseconds that is not exceeded by the given percentage of the recordings.
+	 * The duration is the upper bound of the bucket that contains the percentile, but never larger than the maximum.
+	 *
+	 * @param percentile Percentile between 0 and 100.
+	 */
+	public long getPercentile(double percentile) {
+		if (percentile < 0 || percentile > 100) {
+			throw new IllegalArgumentException("The percentile needs to be between 0 and 100.");
+		}
+
+		// The buckets are read one after another, so the total needs to be taken from them as well.
+		long[] counts = new long[BUCKETS];
+		long total = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			counts[i] = buckets.get(i);
+			total += counts[i];
+		}
+		if (total == 0) {
+			return 0;
+		}
+
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				return Math.min(getUpperBound(i), max.get());
+			}
+		}
+		return max.get();
+	}
+
+	private static int getIndex(long duration) {
+		if (duration < LINEAR_BUCKETS) {
+			return (int) duration;
+		}
+
+		// The exponent selects the power of two, the bits below the highest one select the bucket within it.
+		int exponent = 63 - Long.numberOfLeadingZeros(duration);
+		int subBucket = (int) (duration >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return LINEAR_BUCKETS + (exponent - 4) * SUB_BUCKETS + subBucket;
+	}
+
+	private static long getUpperBound(int index) {
+		if (index < LINEAR_BUCKETS) {
+			return index;
+		}
+
+		int exponent = (index - LINEAR_BUCKETS) / SUB_BUCKETS + 4;
+		int subBucket = (index - LINEAR_BUCKETS) % SUB_BUCKETS;
+		long lowerBound = (long) (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+		return lowerBound + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+	}
+}
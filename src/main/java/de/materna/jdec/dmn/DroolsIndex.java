@@ -0,0 +1,40 @@
+package de.materna.jdec.dmn;
+
+import de.materna.jdec.model.ModelNotFoundException;
+import org.kie.dmn.api.core.DMNModel;
+import org.kie.dmn.api.core.DMNRuntime;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Drools only allows us to search through all models of a runtime.
+ * The index is built once after every compilation, so models can be looked up by their namespace in constant time.
+ */
+public class DroolsIndex {
+	private final List<DMNModel> models;
+	private final Map<String, DMNModel> modelsByNamespace = new LinkedHashMap<>();
+
+	public DroolsIndex(DMNRuntime runtime) {
+		models = new ArrayList<>(runtime.getModels());
+		for (DMNModel model : models) {
+			// If multiple models share a namespace, we keep the first one like the linear search did.
+			modelsByNamespace.putIfAbsent(model.getNamespace(), model);
+		}
+	}
+
+	public List<DMNModel> getModels() {
+		return models;
+	}
+
+	public DMNModel getModel(String namespace) throws ModelNotFoundException {
+		DMNModel model = modelsByNamespace.get(namespace);
+		if (model == null) {
+			throw new ModelNotFoundException();
+		}
+
+		return model;
+	}
+}
@@ -0,0 +1,102 @@
+package de.materna.jdec.dmn;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import de.materna.jdec.serialization.InputBinder;
+import de.materna.jdec.serialization.SerializationHelper;
+import org.kie.dmn.api.core.DMNContext;
+import org.kie.dmn.core.api.DMNFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the inputs of an execution from JSON or a POJO directly into a context, without converting them into a map first.
+ * The values are created in the form that Drools expects: numbers are read as BigDecimal and strings with a temporal marker are converted like in {@link DroolsHelper#enrichInput(Object)}.
+ */
+public class DroolsInputReader {
+	private static final JsonFactory factory = SerializationHelper.getInstance().getJSONMapper().getFactory();
+
+	public static DMNContext read(InputStream inputStream) throws IOException {
+		try (JsonParser parser = factory.createParser(inputStream)) {
+			return read(parser);
+		}
+	}
+
+	public static DMNContext read(byte[] bytes) throws IOException {
+		try (JsonParser parser = factory.createParser(bytes)) {
+			return read(parser);
+		}
+	}
+
+	/**
+	 * Reads the properties of a POJO into a context, see {@link InputBinder}.
+	 */
+	public static DMNContext bind(Object input) {
+		try (JsonParser parser = InputBinder.toParser(input)) {
+			return read(parser);
+		}
+		catch (IOException e) {
+			throw new IllegalArgumentException(e.getMessage(), e);
+		}
+	}
+
+	private static DMNContext read(JsonParser parser) throws IOException {
+		if (parser.nextToken() != JsonToken.START_OBJECT) {
+			throw new JsonParseException(parser, "The inputs need to be a JSON object.");
+		}
+
+		// The inputs on the first level are set on the context directly.
+		DMNContext context = DMNFactory.newContext();
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String name = parser.getCurrentName();
+			context.set(name, readValue(parser, parser.nextToken()));
+		}
+		return context;
+	}
+
+	private static Object readValue(JsonParser parser, JsonToken token) throws IOException {
+		if (token == null) {
+			throw new JsonParseException(parser, "The inputs end unexpectedly.");
+		}
+
+		switch (token) {
+			case START_OBJECT:
+				Map<String, Object> map = new LinkedHashMap<>();
+				while (parser.nextToken() == JsonToken.FIELD_NAME) {
+					String name = parser.getCurrentName();
+					map.put(name, readValue(parser, parser.nextToken()));
+				}
+				return map;
+			case START_ARRAY:
+				List<Object> list = new ArrayList<>();
+				while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+					list.add(readValue(parser, token));
+				}
+				return list;
+			case VALUE_STRING:
+				return DroolsHelper.enrichInput(parser.getText());
+			case VALUE_NUMBER_INT:
+			case VALUE_NUMBER_FLOAT:
+				// Drools would convert all other numbers into BigDecimal during the evaluation.
+				return parser.getDecimalValue();
+			case VALUE_TRUE:
+				return Boolean.TRUE;
+			case VALUE_FALSE:
+				return Boolean.FALSE;
+			case VALUE_NULL:
+				return null;
+			case VALUE_EMBEDDED_OBJECT:
+				// Only POJOs can contain values that aren't represented by JSON tokens.
+				return parser.getEmbeddedObject();
+			default:
+				throw new JsonParseException(parser, "The token " + token + " is not supported.");
+		}
+	}
+}
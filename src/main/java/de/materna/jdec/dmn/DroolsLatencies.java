@@ -0,0 +1,53 @@
+package de.materna.jdec.dmn;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Contains the histograms of the decisions, knowledge models and decision services, grouped by the namespace of their model.
+ * The durations are recorded by {@link DroolsTimer}.
+ */
+public class DroolsLatencies {
+	private final ConcurrentHashMap<String, ConcurrentHashMap<String, DroolsHistogram>> histograms = new ConcurrentHashMap<>();
+
+	public void record(String namespace, String name, long duration) {
+		// Lookups are far more common than new nodes, so we only fall back to computeIfAbsent if the histogram doesn't exist yet.
+		ConcurrentHashMap<String, DroolsHistogram> modelHistograms = histograms.get(namespace);
+		if (modelHistograms == null) {
+			modelHistograms = histograms.computeIfAbsent(namespace, key -> new ConcurrentHashMap<>());
+		}
+
+		DroolsHistogram histogram = modelHistograms.get(name);
+		if (histogram == null) {
+			histogram = modelHistograms.computeIfAbsent(name, key -> new DroolsHistogram());
+		}
+
+		histogram.record(duration);
+	}
+
+	/**
+	 * Returns the histograms of the nodes of a model that have been evaluated, the map is a copy but the histograms are live.
+	 */
+	public Map<String, DroolsHistogram> getHistograms(String namespace) {
+		ConcurrentHashMap<String, DroolsHistogram> modelHistograms = histograms.get(namespace);
+		if (modelHistograms == null) {
+			return Collections.emptyMap();
+		}
+		return new LinkedHashMap<>(modelHistograms);
+	}
+
+	public DroolsHistogram getHistogram(String namespace, String name) {
+		ConcurrentHashMap<String, DroolsHistogram> modelHistograms = histograms.get(namespace);
+		return modelHistograms == null ? null : modelHistograms.get(name);
+	}
+
+	public void reset() {
+		histograms.clear();
+	}
+
+	public void reset(String namespace) {
+		histograms.remove(namespace);
+	}
+}
@@ -0,0 +1,74 @@
+package de.materna.jdec.dmn;
+
+import de.materna.jdec.model.ModelAccess;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the trace in memory, the result can be attached to an {@link de.materna.jdec.model.ExecutionResult}.
+ * The contexts of the accesses are read-only, they can share their entries with each other and need to be copied before they are modified.
+ */
+public class DroolsMemoryTraceSink implements DroolsTraceSink {
+	private Map<String, Map<String, Object>> decisions = new LinkedHashMap<>();
+	private List<ModelAccess> modelAccessLog = new ArrayList<>();
+
+	// The accesses are looked up by their identifier, which is their index.
+	private List<ModelAccess> modelAccesses = new ArrayList<>();
+
+	@Override
+	public void enterAccess(int id, int parent, ModelAccess.ModelAccessType accessType, String name, int base, boolean exit, Map<String, Object> changes) {
+		ModelAccess modelAccess = new ModelAccess(accessType, name);
+		if (base == NONE) {
+			modelAccess.setEntryContext(Collections.unmodifiableMap(changes));
+		}
+		else {
+			modelAccess.setEntryContext(new DroolsContextChanges(getContext(base, exit), changes));
+		}
+		// Markers of truncated accesses are never exited.
+		modelAccess.setExitContext(Collections.emptyMap());
+		modelAccesses.add(modelAccess);
+
+		if (parent == NONE) {
+			modelAccessLog.add(modelAccess);
+			return;
+		}
+		modelAccesses.get(parent).getChildren().add(modelAccess);
+	}
+
+	@Override
+	public void exitAccess(int id, int base, boolean exit, Map<String, Object> changes) {
+		ModelAccess modelAccess = modelAccesses.get(id);
+		if (base == NONE) {
+			modelAccess.setExitContext(Collections.unmodifiableMap(changes));
+			return;
+		}
+		modelAccess.setExitContext(new DroolsContextChanges(getContext(base, exit), changes));
+	}
+
+	private Map<String, Object> getContext(int id, boolean exit) {
+		ModelAccess modelAccess = modelAccesses.get(id);
+		return exit ? modelAccess.getExitContext() : modelAccess.getEntryContext();
+	}
+
+	@Override
+	public void enterDecision(String decisionName) {
+		decisions.put(decisionName, new LinkedHashMap<>());
+	}
+
+	@Override
+	public void addContextEntry(String decisionName, String name, Object value) {
+		decisions.get(decisionName).put(name, value);
+	}
+
+	public Map<String, Map<String, Object>> getDecisions() {
+		return decisions;
+	}
+
+	public List<ModelAccess> getModelAccessLog() {
+		return modelAccessLog;
+	}
+}
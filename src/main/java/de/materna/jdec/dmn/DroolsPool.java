@@ -0,0 +1,176 @@
+package de.materna.jdec.dmn;
+
+import org.kie.api.runtime.KieContainer;
+import org.kie.api.runtime.KieSession;
+import org.kie.dmn.api.core.DMNRuntime;
+import org.kie.dmn.api.core.event.DMNRuntimeEventListener;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Contains multiple runtimes that are created from the same container.
+ * An execution checks out a runtime exclusively and returns it afterwards, so parallel executions don't contend on a single runtime.
+ * If all runtimes are checked out, the execution waits until one is returned.
+ * Workers of a fork join pool wait as managed blockers, so the pool can compensate and its other tasks are not starved.
+ * <p>
+ * Every runtime holds its own KieSession, so the memory of the compiled models is needed once per runtime.
+ */
+public class DroolsPool {
+	private final List<KieSession> sessions;
+	private final List<DMNRuntime> runtimes;
+	private final BlockingQueue<DMNRuntime> availableRuntimes;
+	private final DMNRuntime sharedRuntime;
+
+	private final AtomicInteger waiters = new AtomicInteger();
+
+	/**
+	 * @param container Container that is used to create the sessions.
+	 * @param size      Number of runtimes.
+	 * @param listeners Listeners that are registered once on every runtime.
+	 */
+	public DroolsPool(KieContainer container, int size, DMNRuntimeEventListener... listeners) {
+		if (size < 1) {
+			throw new IllegalArgumentException("The pool needs to contain at least one runtime.");
+		}
+
+		sessions = new ArrayList<>(size);
+		runtimes = new ArrayList<>(size);
+		availableRuntimes = new ArrayBlockingQueue<>(size);
+
+		for (int i = 0; i < size; i++) {
+			// KieSession allows the application to establish a connection to the Drools engine.
+			// The state is kept across invocations.
+			KieSession session = container.newKieSession();
+
+			// Get the KieRuntime through the established connection.
+			DMNRuntime runtime = session.getKieRuntime(DMNRuntime.class);
+			// TODO: Should we enable this? ((DMNRuntimeImpl) runtime).setOption(new RuntimeTypeCheckOption(true));
+			for (DMNRuntimeEventListener listener : listeners) {
+				runtime.addListener(listener);
+			}
+
+			sessions.add(session);
+			runtimes.add(runtime);
+			availableRuntimes.add(runtime);
+		}
+
+		sharedRuntime = (DMNRuntime) Proxy.newProxyInstance(DMNRuntime.class.getClassLoader(), new Class<?>[]{DMNRuntime.class}, (proxy, method, arguments) -> {
+			try {
+				if (method.getName().equals("addListener") || method.getName().equals("removeListener")) {
+					for (DMNRuntime runtime : runtimes) {
+						method.invoke(runtime, arguments);
+					}
+					return null;
+				}
+				return method.invoke(runtimes.get(0), arguments);
+			}
+			catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		});
+	}
+
+	/**
+	 * Returns a runtime that is exclusively used by the caller until it is released.
+	 * If all runtimes are checked out, the caller waits until one is released.
+	 */
+	public DMNRuntime checkout() {
+		DMNRuntime runtime = availableRuntimes.poll();
+		if (runtime != null) {
+			return runtime;
+		}
+
+		waiters.incrementAndGet();
+		boolean interrupted = false;
+		try {
+			while (true) {
+				try {
+					if (Thread.currentThread() instanceof ForkJoinWorkerThread) {
+						RuntimeBlocker blocker = new RuntimeBlocker();
+						ForkJoinPool.managedBlock(blocker);
+						return blocker.runtime;
+					}
+					return availableRuntimes.take();
+				}
+				catch (InterruptedException e) {
+					// The execution can't be aborted halfway, we'll restore the interrupt after we got a runtime.
+					interrupted = true;
+				}
+			}
+		}
+		finally {
+			waiters.decrementAndGet();
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	public void release(DMNRuntime runtime) {
+		availableRuntimes.offer(runtime);
+	}
+
+	public void dispose() {
+		for (KieSession session : sessions) {
+			session.dispose();
+		}
+	}
+
+	/**
+	 * Returns a runtime that can be used to inspect the models without checking it out. It delegates to the first runtime of the pool.
+	 * Listeners that are added to it are added to every runtime of the pool, so they receive the events of all executions.
+	 */
+	public DMNRuntime getRuntime() {
+		return sharedRuntime;
+	}
+
+	public int getSize() {
+		return runtimes.size();
+	}
+
+	/**
+	 * Returns the number of executions that are waiting for a runtime.
+	 */
+	public int getWaiters() {
+		return waiters.get();
+	}
+
+	/**
+	 * Returns the number of runtimes that are currently checked out.
+	 */
+	public int getActive() {
+		return runtimes.size() - availableRuntimes.size();
+	}
+
+	private class RuntimeBlocker implements ForkJoinPool.ManagedBlocker {
+		private DMNRuntime runtime;
+
+		@Override
+		public boolean block() throws InterruptedException {
+			if (runtime == null) {
+				runtime = availableRuntimes.take();
+			}
+			return true;
+		}
+
+		@Override
+		public boolean isReleasable() {
+			return runtime != null || (runtime = availableRuntimes.poll()) != null;
+		}
+	}
+
+	/**
+	 * Returns the share of runtimes that are currently checked out, ranging from 0 to 1.
+	 */
+	public double getUtilization() {
+		return (double) getActive() / runtimes.size();
+	}
+}
@@ -0,0 +1,152 @@
+package de.materna.jdec.dmn;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import de.materna.jdec.model.ExecutionResult;
+import de.materna.jdec.model.Message;
+import de.materna.jdec.model.ModelAccess;
+import de.materna.jdec.serialization.SerializationHelper;
+import org.kie.dmn.api.core.DMNDecisionResult;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes execution results as JSON, the structure is the same as the one of a serialized {@link ExecutionResult}.
+ * The values are converted like in {@link DroolsHelper#cleanOutput(Object)} while they are written, so the results of Drools don't need to be copied first.
+ */
+public class DroolsResultWriter {
+	/**
+	 * Writes the successful decisions of an evaluation without converting their results first.
+	 */
+	public static void write(JsonGenerator generator, List<DMNDecisionResult> decisionResults, Map<String, Map<String, Object>> context, List<ModelAccess> accessLog, List<Message> messages) throws IOException {
+		generator.writeStartObject();
+
+		generator.writeFieldName("outputs");
+		generator.writeStartObject();
+		for (DMNDecisionResult decisionResult : decisionResults) {
+			// Since not all decisions are executed, we only write the successful ones
+			if (decisionResult.getEvaluationStatus() != DMNDecisionResult.DecisionEvaluationStatus.SUCCEEDED) {
+				continue;
+			}
+
+			generator.writeFieldName(decisionResult.getDecisionName());
+			writeValue(generator, decisionResult.getResult());
+		}
+		generator.writeEndObject();
+
+		writeTrace(generator, context, accessLog);
+		writeMessages(generator, messages);
+
+		generator.writeEndObject();
+	}
+
+	public static void write(JsonGenerator generator, ExecutionResult executionResult) throws IOException {
+		generator.writeStartObject();
+
+		generator.writeFieldName("outputs");
+		writeValue(generator, executionResult.getOutputs());
+
+		writeTrace(generator, executionResult.getContext(), executionResult.getAccessLog());
+		writeMessages(generator, executionResult.getMessages());
+
+		generator.writeEndObject();
+	}
+
+	/**
+	 * Writes a value of Drools, temporal values are encoded with the markers of {@link DroolsHelper}.
+	 */
+	public static void writeValue(JsonGenerator generator, Object value) throws IOException {
+		if (value instanceof List) {
+			generator.writeStartArray();
+			for (Object entry : (List<?>) value) {
+				writeValue(generator, entry);
+			}
+			generator.writeEndArray();
+			return;
+		}
+		if (value instanceof Map) {
+			generator.writeStartObject();
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				generator.writeFieldName(String.valueOf(entry.getKey()));
+				writeValue(generator, entry.getValue());
+			}
+			generator.writeEndObject();
+			return;
+		}
+
+		// cleanOutput doesn't copy anything for values that aren't containers.
+		Object cleanedValue = DroolsHelper.cleanOutput(value);
+		if (cleanedValue == null) {
+			generator.writeNull();
+		}
+		else if (cleanedValue instanceof String) {
+			generator.writeString((String) cleanedValue);
+		}
+		else if (cleanedValue instanceof BigDecimal) {
+			generator.writeNumber((BigDecimal) cleanedValue);
+		}
+		else if (cleanedValue instanceof Boolean) {
+			generator.writeBoolean((Boolean) cleanedValue);
+		}
+		else if (generator.getCodec() != null) {
+			generator.writeObject(cleanedValue);
+		}
+		else {
+			// The generator has not been created by an ObjectMapper, so it can only write simple values on its own.
+			SerializationHelper.getInstance().getJSONMapper().writeValue(generator, cleanedValue);
+		}
+	}
+
+	private static void writeTrace(JsonGenerator generator, Map<String, Map<String, Object>> context, List<ModelAccess> accessLog) throws IOException {
+		generator.writeFieldName("context");
+		writeValue(generator, context);
+
+		generator.writeFieldName("accessLog");
+		if (accessLog == null) {
+			generator.writeNull();
+			return;
+		}
+		generator.writeStartArray();
+		for (ModelAccess modelAccess : accessLog) {
+			writeModelAccess(generator, modelAccess);
+		}
+		generator.writeEndArray();
+	}
+
+	private static void writeModelAccess(JsonGenerator generator, ModelAccess modelAccess) throws IOException {
+		generator.writeStartObject();
+		generator.writeStringField("accessType", modelAccess.getAccessType() == null ? null : modelAccess.getAccessType().name());
+		generator.writeStringField("name", modelAccess.getName());
+		generator.writeFieldName("entryContext");
+		writeValue(generator, modelAccess.getEntryContext());
+		generator.writeFieldName("exitContext");
+		writeValue(generator, modelAccess.getExitContext());
+		generator.writeFieldName("children");
+		generator.writeStartArray();
+		for (ModelAccess child : modelAccess.getChildren()) {
+			writeModelAccess(generator, child);
+		}
+		generator.writeEndArray();
+		generator.writeEndObject();
+	}
+
+	private static void writeMessages(JsonGenerator generator, List<Message> messages) throws IOException {
+		generator.writeFieldName("messages");
+		if (messages == null) {
+			generator.writeNull();
+			return;
+		}
+		generator.writeStartArray();
+		for (Message message : messages) {
+			generator.writeStartObject();
+			generator.writeStringField("text", message.getText());
+			generator.writeStringField("level", message.getLevel() == null ? null : message.getLevel().name());
+			generator.writeFieldName("source");
+			writeValue(generator, message.getSource());
+			generator.writeEndObject();
+		}
+		generator.writeEndArray();
+	}
+}
@@ -0,0 +1,43 @@
+package de.materna.jdec.dmn;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides which executions without debug are traced anyway, see {@link de.materna.jdec.DMNDecisionSession#setSampler(DroolsSampler, java.util.function.BiConsumer)}.
+ * The sampler is called on the executing thread before the evaluation, so it needs to be thread-safe and fast.
+ */
+@FunctionalInterface
+public interface DroolsSampler {
+	/**
+	 * @param namespace Namespace of the executed model.
+	 * @param inputs    Inputs of the execution, temporal values have already been converted. They must not be modified.
+	 */
+	boolean sample(String namespace, Map<String, Object> inputs);
+
+	/**
+	 * Traces every n-th execution across all models.
+	 */
+	static DroolsSampler everyNth(int n) {
+		if (n < 1) {
+			throw new IllegalArgumentException("Every n-th execution can only be traced if n is at least 1.");
+		}
+
+		AtomicLong counter = new AtomicLong();
+		return (namespace, inputs) -> counter.getAndIncrement() % n == 0;
+	}
+
+	/**
+	 * Traces a random percentage of the executions.
+	 *
+	 * @param percentage Percentage between 0 and 100.
+	 */
+	static DroolsSampler percentage(double percentage) {
+		if (percentage < 0 || percentage > 100) {
+			throw new IllegalArgumentException("The percentage needs to be between 0 and 100.");
+		}
+
+		return (namespace, inputs) -> ThreadLocalRandom.current().nextDouble(100) < percentage;
+	}
+}
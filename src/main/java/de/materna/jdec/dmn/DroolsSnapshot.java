@@ -0,0 +1,57 @@
+package de.materna.jdec.dmn;
+
+import org.kie.api.runtime.KieContainer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Contains everything that is created by a compilation: the container, the pool of runtimes and the model index.
+ * A snapshot is never modified. After an import, a new snapshot is built and replaces the current one.
+ * <p>
+ * Executions acquire the snapshot and release it afterwards. The session holds one reference itself until the snapshot is replaced.
+ * The container and the runtimes are disposed when the last reference is released, so running executions are never affected by an import.
+ */
+public class DroolsSnapshot {
+	private final KieContainer container;
+	private final DroolsPool pool;
+	private final DroolsIndex index;
+
+	// The session holds the first reference.
+	private final AtomicInteger references = new AtomicInteger(1);
+
+	public DroolsSnapshot(KieContainer container, DroolsPool pool, DroolsIndex index) {
+		this.container = container;
+		this.pool = pool;
+		this.index = index;
+	}
+
+	/**
+	 * @return false if the snapshot has already been disposed. In this case, the caller needs to acquire the current snapshot.
+	 */
+	public boolean acquire() {
+		while (true) {
+			int currentReferences = references.get();
+			if (currentReferences == 0) {
+				return false;
+			}
+			if (references.compareAndSet(currentReferences, currentReferences + 1)) {
+				return true;
+			}
+		}
+	}
+
+	public void release() {
+		if (references.decrementAndGet() == 0) {
+			pool.dispose();
+			container.dispose();
+		}
+	}
+
+	public DroolsPool getPool() {
+		return pool;
+	}
+
+	public DroolsIndex getIndex() {
+		return index;
+	}
+}
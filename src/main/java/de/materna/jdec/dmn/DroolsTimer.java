@@ -0,0 +1,87 @@
+package de.materna.jdec.dmn;
+
+import org.kie.dmn.api.core.ast.DMNNode;
+import org.kie.dmn.api.core.event.*;
+
+import java.util.Arrays;
+
+/**
+ * Measures the durations of the decisions, knowledge models and decision services and records them into the histograms of the session.
+ * The timer is registered on the runtimes directly and is shared by all evaluations.
+ * Drools fires all events of an evaluation on the thread that has started it, so every thread keeps its own start times.
+ */
+public class DroolsTimer implements DMNRuntimeEventListener {
+	private final DroolsLatencies latencies;
+
+	// The nodes are evaluated recursively, so the start times are kept on a stack.
+	private final ThreadLocal<StartTimes> startTimes = ThreadLocal.withInitial(StartTimes::new);
+
+	public DroolsTimer(DroolsLatencies latencies) {
+		this.latencies = latencies;
+	}
+
+	@Override
+	public void beforeEvaluateDecision(BeforeEvaluateDecisionEvent event) {
+		startTimes.get().push(System.nanoTime());
+	}
+
+	@Override
+	public void afterEvaluateDecision(AfterEvaluateDecisionEvent event) {
+		stop(event.getDecision());
+	}
+
+	@Override
+	public void beforeInvokeBKM(BeforeInvokeBKMEvent event) {
+		startTimes.get().push(System.nanoTime());
+	}
+
+	@Override
+	public void afterInvokeBKM(AfterInvokeBKMEvent event) {
+		stop(event.getBusinessKnowledgeModel());
+	}
+
+	@Override
+	public void beforeEvaluateDecisionService(BeforeEvaluateDecisionServiceEvent event) {
+		startTimes.get().push(System.nanoTime());
+	}
+
+	@Override
+	public void afterEvaluateDecisionService(AfterEvaluateDecisionServiceEvent event) {
+		stop(event.getDecisionService());
+	}
+
+	/**
+	 * Discards the start times of the current thread, it needs to be called if an evaluation has been aborted.
+	 */
+	public void discard() {
+		startTimes.get().depth = 0;
+	}
+
+	private void stop(DMNNode node) {
+		long endTime = System.nanoTime();
+
+		StartTimes currentStartTimes = startTimes.get();
+		if (currentStartTimes.depth == 0) {
+			return;
+		}
+
+		// The nodes of imported models are recorded under the namespace of their own model.
+		latencies.record(node.getModelNamespace(), node.getName(), endTime - currentStartTimes.pop());
+	}
+
+	private static class StartTimes {
+		private long[] values = new long[8];
+		private int depth;
+
+		private void push(long value) {
+			if (depth == values.length) {
+				values = Arrays.copyOf(values, depth * 2);
+			}
+			values[depth++] = value;
+		}
+
+		private long pop() {
+			return values[--depth];
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package de.materna.jdec.dmn;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Limits the size of a trace, so debugging is also safe for models that iterate large lists.
+ * Parts of the trace that exceed a limit are replaced with {@link #TRUNCATED}.
+ */
+public class DroolsTraceLimits {
+	public static final String TRUNCATED = "__TRUNCATED__";
+
+	public static final DroolsTraceLimits UNLIMITED = new DroolsTraceLimits(Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE);
+
+	private final int maxNodes;
+	private final int maxDepth;
+	private final int maxListLength;
+	private final int maxValueSize;
+
+	/**
+	 * @param maxNodes      Maximum number of accesses and context entries.
+	 * @param maxDepth      Maximum depth of accesses, context entries and values.
+	 * @param maxListLength Maximum number of elements of a list, this includes the children of an access.
+	 * @param maxValueSize  Maximum size of a value in characters, if it is serialized as JSON.
+	 */
+	public DroolsTraceLimits(int maxNodes, int maxDepth, int maxListLength, int maxValueSize) {
+		if (maxNodes < 1 || maxDepth < 1 || maxListLength < 1 || maxValueSize < 1) {
+			throw new IllegalArgumentException("The limits need to be at least 1.");
+		}
+
+		this.maxNodes = maxNodes;
+		this.maxDepth = maxDepth;
+		this.maxListLength = maxListLength;
+		this.maxValueSize = maxValueSize;
+	}
+
+	public int getMaxNodes() {
+		return maxNodes;
+	}
+
+	public int getMaxDepth() {
+		return maxDepth;
+	}
+
+	public int getMaxListLength() {
+		return maxListLength;
+	}
+
+	public int getMaxValueSize() {
+		return maxValueSize;
+	}
+
+	/**
+	 * Truncates a value that has already been cleaned by {@link DroolsHelper#cleanOutput(Object)}.
+	 * Lists and maps are only copied if they need to be truncated, otherwise the given instance is returned.
+	 */
+	public Object limitValue(Object value) {
+		if (this == UNLIMITED) {
+			return value;
+		}
+
+		Object limitedValue = limitValue(value, 1);
+		if (maxValueSize != Integer.MAX_VALUE && estimateSize(limitedValue, maxValueSize) > maxValueSize) {
+			return TRUNCATED;
+		}
+		return limitedValue;
+	}
+
+	private Object limitValue(Object value, int depth) {
+		if (value instanceof List) {
+			if (depth > maxDepth) {
+				return TRUNCATED;
+			}
+
+			List<?> typedValue = (List<?>) value;
+			if (typedValue.size() <= maxListLength) {
+				return DroolsHelper.transformValues(typedValue, entry -> limitValue(entry, depth + 1));
+			}
+
+			// The remaining elements are replaced with a single marker.
+			List<Object> limitedValues = new ArrayList<>(maxListLength + 1);
+			limitedValues.addAll(DroolsHelper.transformValues(typedValue.subList(0, maxListLength), entry -> limitValue(entry, depth + 1)));
+			limitedValues.add(TRUNCATED);
+			return limitedValues;
+		}
+		if (value instanceof Map) {
+			if (depth > maxDepth) {
+				return TRUNCATED;
+			}
+
+			return DroolsHelper.transformValues((Map<?, ?>) value, entry -> limitValue(entry, depth + 1));
+		}
+		return value;
+	}
+
+	/**
+	 * Estimates the size of the value serialized as JSON, it stops as soon as the budget is exceeded.
+	 */
+	private static int estimateSize(Object value, int budget) {
+		if (value instanceof String) {
+			return ((String) value).length() + 2;
+		}
+		if (value instanceof List) {
+			int size = 2;
+			for (Object entry : (List<?>) value) {
+				size += estimateSize(entry, budget - size) + 1;
+				if (size > budget) {
+					return size;
+				}
+			}
+			return size;
+		}
+		if (value instanceof Map) {
+			int size = 2;
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				size += String.valueOf(entry.getKey()).length() + 4;
+				size += estimateSize(entry.getValue(), budget - size);
+				if (size > budget) {
+					return size;
+				}
+			}
+			return size;
+		}
+		// Numbers, booleans and null are serialized like their string representation.
+		return String.valueOf(value).length();
+	}
+}
@@ -0,0 +1,122 @@
+package de.materna.jdec.dmn;
+
+import de.materna.jdec.model.ModelAccess;
+import de.materna.jdec.serialization.SerializationHelper;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads a trace that has been written by {@link DroolsFileTraceSink}.
+ */
+public class DroolsTraceReader {
+	private static final ModelAccess.ModelAccessType[] accessTypes = ModelAccess.ModelAccessType.values();
+
+	/**
+	 * Rebuilds the decisions and the accesses of the trace in memory.
+	 */
+	public static DroolsMemoryTraceSink read(Path path) throws IOException {
+		DroolsMemoryTraceSink sink = new DroolsMemoryTraceSink();
+		read(path, sink);
+		return sink;
+	}
+
+	/**
+	 * Passes the records of the trace on to the sink in the order they have been written.
+	 */
+	public static void read(Path path, DroolsTraceSink sink) throws IOException {
+		try (InputStream inputStream = Files.newInputStream(path)) {
+			DataInputStream input = new DataInputStream(new BufferedInputStream(inputStream));
+			if (input.readInt() != DroolsFileTraceSink.MAGIC || input.readByte() != DroolsFileTraceSink.VERSION) {
+				throw new IOException("The file does not contain a trace.");
+			}
+
+			// The trace ends with the end of the file or with the zeros behind the last record.
+			int type;
+			while ((type = input.read()) > DroolsFileTraceSink.RECORD_END) {
+				int length = input.readInt();
+				switch (type) {
+					case DroolsFileTraceSink.RECORD_ENTER_ACCESS:
+						int id = input.readInt();
+						int parent = input.readInt();
+						ModelAccess.ModelAccessType accessType = accessTypes[input.readByte()];
+						String name = readString(input);
+						sink.enterAccess(id, parent, accessType, name, input.readInt(), input.readBoolean(), (Map<String, Object>) readValue(input));
+						break;
+					case DroolsFileTraceSink.RECORD_EXIT_ACCESS:
+						sink.exitAccess(input.readInt(), input.readInt(), input.readBoolean(), (Map<String, Object>) readValue(input));
+						break;
+					case DroolsFileTraceSink.RECORD_ENTER_DECISION:
+						sink.enterDecision(readString(input));
+						break;
+					case DroolsFileTraceSink.RECORD_CONTEXT_ENTRY:
+						sink.addContextEntry(readString(input), readString(input), readValue(input));
+						break;
+					default:
+						// Records of newer versions are skipped.
+						input.skipBytes(length);
+				}
+			}
+		}
+	}
+
+	private static String readString(DataInputStream input) throws IOException {
+		int length = input.readInt();
+		if (length == -1) {
+			return null;
+		}
+
+		byte[] bytes = new byte[length];
+		input.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static Object readValue(DataInputStream input) throws IOException {
+		byte type = input.readByte();
+		switch (type) {
+			case DroolsFileTraceSink.VALUE_NULL:
+				return null;
+			case DroolsFileTraceSink.VALUE_TRUE:
+				return Boolean.TRUE;
+			case DroolsFileTraceSink.VALUE_FALSE:
+				return Boolean.FALSE;
+			case DroolsFileTraceSink.VALUE_STRING:
+				return readString(input);
+			case DroolsFileTraceSink.VALUE_NUMBER:
+				return new BigDecimal(readString(input));
+			case DroolsFileTraceSink.VALUE_LIST: {
+				int size = input.readInt();
+				List<Object> list = new ArrayList<>(size);
+				for (int i = 0; i < size; i++) {
+					list.add(readValue(input));
+				}
+				return list;
+			}
+			case DroolsFileTraceSink.VALUE_MAP: {
+				int size = input.readInt();
+				Map<String, Object> map = new LinkedHashMap<>();
+				for (int i = 0; i < size; i++) {
+					String key = readString(input);
+					map.put(key, readValue(input));
+				}
+				return map;
+			}
+			case DroolsFileTraceSink.VALUE_REMOVED:
+				return DroolsTraceSink.REMOVED;
+			case DroolsFileTraceSink.VALUE_JSON:
+				return SerializationHelper.getInstance().toClass(readString(input), Object.class);
+			default:
+				throw new IOException("The value type " + type + " is not supported.");
+		}
+	}
+}
@@ -0,0 +1,50 @@
+package de.materna.jdec.dmn;
+
+import de.materna.jdec.model.ModelAccess;
+
+import java.util.Map;
+
+/**
+ * Receives the trace of a single evaluation from the {@link DroolsDebugger} while the model is evaluated.
+ * The accesses are identified by the order in which they have been entered, starting with 0.
+ * The contexts only contain the entries that have been added, changed or removed ({@link #REMOVED}) since their base context.
+ * The base is the last recorded context of the parent: its entry context or the exit context of the previous sibling.
+ * All values have already been cleaned and limited, a sink must not modify them.
+ */
+public interface DroolsTraceSink {
+	/**
+	 * Marks an entry of the changes that has been removed from the base context.
+	 */
+	Object REMOVED = new Object();
+
+	/**
+	 * Used as parent if the access is added to the log directly and as base if the context is complete.
+	 */
+	int NONE = -1;
+
+	/**
+	 * @param id      Identifier of the access.
+	 * @param parent  Identifier of the access that contains this access.
+	 * @param base    Identifier of the access whose context the changes are based on.
+	 * @param exit    True if the changes are based on the exit context of the base, otherwise on its entry context.
+	 * @param changes Entries of the entry context that have changed since the base context.
+	 */
+	void enterAccess(int id, int parent, ModelAccess.ModelAccessType accessType, String name, int base, boolean exit, Map<String, Object> changes);
+
+	/**
+	 * Markers of truncated accesses are entered, but never exited.
+	 *
+	 * @see #enterAccess(int, int, ModelAccess.ModelAccessType, String, int, boolean, Map)
+	 */
+	void exitAccess(int id, int base, boolean exit, Map<String, Object> changes);
+
+	/**
+	 * Called when a decision is evaluated, the context entries of a previous evaluation of the decision are discarded.
+	 */
+	void enterDecision(String decisionName);
+
+	/**
+	 * Called when a context entry on the first level of a decision has been evaluated.
+	 */
+	void addContextEntry(String decisionName, String name, Object value);
+}
@@ -1,5 +1,10 @@
 package de.materna.jdec.model;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 public class ComplexInputStructure extends InputStructure {
 	private Object value;
 
@@ -20,4 +25,26 @@ public class ComplexInputStructure extends InputStructure {
 	public void setValue(Object value) {
 		this.value = value;
 	}
-}
\ No newline at end of file
+
+	@Override
+	public Object createSample() {
+		if (getType().equals("object")) {
+			Map<String, Object> sample = new LinkedHashMap<>();
+			for (Map.Entry<String, InputStructure> entry : ((Map<String, InputStructure>) value).entrySet()) {
+				sample.put(entry.getKey(), entry.getValue().createSample());
+			}
+			return sample;
+		}
+
+		if (getType().equals("array")) {
+			// The collection contains one sample of its element.
+			List<Object> sample = new ArrayList<>();
+			for (InputStructure inputStructure : (List<InputStructure>) value) {
+				sample.add(inputStructure.createSample());
+			}
+			return sample;
+		}
+
+		return super.createSample();
+	}
+}
@@ -40,4 +40,20 @@ public class ExecutionResult {
 	public List<Message> getMessages() {
 		return messages;
 	}
+
+	/**
+	 * Returns true if the execution has reported at least one error.
+	 */
+	public boolean hasErrors() {
+		if (messages == null) {
+			return false;
+		}
+
+		for (Message message : messages) {
+			if (message.getLevel() == Message.Level.ERROR) {
+				return true;
+			}
+		}
+		return false;
+	}
 }
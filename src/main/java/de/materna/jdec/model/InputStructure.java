@@ -25,4 +25,44 @@ public class InputStructure {
 	public List<Object> getOptions() {
 		return options;
 	}
+
+	/**
+	 * Creates a valid value for this input, e.g. to warm up a decision model with synthetic inputs.
+	 * If there are allowed values, the first one is used.
+	 * Dates, times and durations are created in the serialized format that is accepted by the decision sessions.
+	 * If the type is missing or unknown, null is returned.
+	 */
+	public Object createSample() {
+		if (options != null && !options.isEmpty()) {
+			return options.get(0);
+		}
+		if (type == null) {
+			return null;
+		}
+
+		switch (type) {
+			case "string":
+				return "";
+			case "number":
+				return 0;
+			case "boolean":
+				return false;
+			case "date":
+				return "\uE15A2000-01-01";
+			case "time":
+				return "\uE15B00:00:00";
+			case "date and time":
+			case "dateTime":
+				return "\uE15C2000-01-01T00:00:00";
+			case "days and time duration":
+			case "dayTimeDuration":
+				return "\uE15DPT0S";
+			case "years and months duration":
+			case "yearMonthDuration":
+				return "\uE15EP0M";
+			default:
+				// We can't create a value for Any or unknown types.
+				return null;
+		}
+	}
 }
@@ -0,0 +1,57 @@
+package de.materna.jdec.serialization;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Converts POJOs into the inputs of a decision model.
+ * The writer of a class is created on first use, so the bean is only introspected once.
+ * The properties are written into a token buffer that can be read by the decision sessions directly, no generic map needs to be built in between.
+ */
+public class InputBinder {
+	private static final ObjectMapper mapper = SerializationHelper.getInstance().getJSONMapper();
+
+	private static final ClassValue<ObjectWriter> writers = new ClassValue<ObjectWriter>() {
+		@Override
+		protected ObjectWriter computeValue(Class<?> type) {
+			return mapper.writerFor(type);
+		}
+	};
+
+	private static final ObjectReader mapReader = mapper.readerFor(new TypeReference<Map<String, Object>>() {
+	});
+
+	/**
+	 * Returns a parser over the properties of the input.
+	 * Like convertValue, an IllegalArgumentException is thrown if the input can't be serialized.
+	 */
+	public static JsonParser toParser(Object input) {
+		TokenBuffer buffer = new TokenBuffer(mapper, false);
+		try {
+			writers.get(input.getClass()).writeValue(buffer, input);
+		}
+		catch (IOException e) {
+			throw new IllegalArgumentException(e.getMessage(), e);
+		}
+		return buffer.asParser();
+	}
+
+	/**
+	 * Returns the properties of the input as a map, the values are the same as the ones of convertValue.
+	 */
+	public static Map<String, Object> toMap(Object input) {
+		try (JsonParser parser = toParser(input)) {
+			return mapReader.readValue(parser);
+		}
+		catch (IOException e) {
+			throw new IllegalArgumentException(e.getMessage(), e);
+		}
+	}
+}
@@ -12,19 +12,14 @@ import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
 import java.io.IOException;
 
 public class SerializationHelper {
-	private static SerializationHelper instance;
-
 	private ObjectMapper jsonMapper = new ObjectMapper().registerModules(new ParameterNamesModule(), new JavaTimeModule(), new Jdk8Module()).configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
 	private ObjectMapper xmlMapper = new XmlMapper().registerModules(new ParameterNamesModule(), new JavaTimeModule(), new Jdk8Module()).configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
 
 	private SerializationHelper() {
 	}
 
-	public static synchronized SerializationHelper getInstance() {
-		if (instance == null) {
-			instance = new SerializationHelper();
-		}
-		return instance;
+	public static SerializationHelper getInstance() {
+		return InstanceHolder.INSTANCE;
 	}
 
 	public Object toClass(String text, Class<?> clazz) throws RuntimeException {
@@ -70,4 +65,11 @@ public class SerializationHelper {
 	public ObjectMapper getXMLMapper() {
 		return xmlMapper;
 	}
-}
+
+	/**
+	 * The instance is created when the holder is loaded for the first time, so getInstance() doesn't need any lock.
+	 */
+	private static class InstanceHolder {
+		private static final SerializationHelper INSTANCE = new SerializationHelper();
+	}
+}
\ No newline at end of file
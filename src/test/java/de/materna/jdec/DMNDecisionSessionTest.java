@@ -1,21 +1,51 @@
 package de.materna.jdec;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.materna.jdec.dmn.DroolsFileTraceSink;
+import de.materna.jdec.dmn.DroolsHelper;
+import de.materna.jdec.dmn.DroolsHistogram;
+import de.materna.jdec.dmn.DroolsInputReader;
+import de.materna.jdec.dmn.DroolsMemoryTraceSink;
+import de.materna.jdec.dmn.DroolsResultWriter;
+import de.materna.jdec.dmn.DroolsSampler;
+import de.materna.jdec.dmn.DroolsTraceLimits;
+import de.materna.jdec.dmn.DroolsTraceReader;
+import de.materna.jdec.dmn.DroolsTraceSink;
+import de.materna.jdec.entities.Amount;
 import de.materna.jdec.entities.EmploymentForm;
 import de.materna.jdec.model.*;
+import de.materna.jdec.serialization.InputBinder;
 import de.materna.jdec.serialization.SerializationHelper;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.kie.dmn.api.core.DMNContext;
+import org.kie.dmn.api.core.DMNRuntime;
+import org.kie.dmn.api.core.event.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.StringWriter;
 import java.math.BigDecimal;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @SuppressWarnings("ConstantConditions")
 public class DMNDecisionSessionTest {
@@ -137,6 +167,97 @@ public class DMNDecisionSessionTest {
 		Assertions.assertEquals("You are UNEMPLOYED", outputs.get("Employment Status Statement"));
 	}
 
+	@Test
+	void executeModelWithJSON() throws IOException, URISyntaxException {
+		DMNDecisionSession decisionSession = new DMNDecisionSession();
+
+		Path decisionPath = Paths.get(getClass().getClassLoader().getResource("tck/0003-input-data-string-allowed-values.dmn").toURI());
+		String decision = new String(Files.readAllBytes(decisionPath));
+		decisionSession.importModel("https://github.com/agilepro/dmn-tck", decision);
+
+		byte[] input = "{\"Employment Status\": \"UNEMPLOYED\"}".getBytes(StandardCharsets.UTF_8);
+
+		ExecutionResult executionResult = decisionSession.executeModel("https://github.com/agilepro/dmn-tck", input);
+		Assertions.assertEquals("You are UNEMPLOYED", executionResult.getOutputs().get("Employment Status Statement"));
+
+		executionResult = decisionSession.executeModel("https://github.com/agilepro/dmn-tck", new ByteArrayInputStream(input), true);
+		Assertions.assertEquals("You are UNEMPLOYED", executionResult.getOutputs().get("Employment Status Statement"));
+
+		Assertions.assertThrows(ModelNotFoundException.class, () -> decisionSession.executeModel("namespace", input));
+		Assertions.assertThrows(JsonParseException.class, () -> decisionSession.executeModel("https://github.com/agilepro/dmn-tck", "[]".getBytes(StandardCharsets.UTF_8)));
+		Assertions.assertThrows(JsonParseException.class, () -> decisionSession.executeModel("https://github.com/agilepro/dmn-tck", "{\"Employment Status\": ".getBytes(StandardCharsets.UTF_8)));
+
+		// The values are read in the form that Drools expects.
+		DMNContext context = DroolsInputReader.read("{\"Number\": 1, \"Date\": \"\uE15A2024-02-29\", \"List\": [1.5, true, null], \"Context\": {\"Duration\": \"\uE15DPT1H\"}}".getBytes(StandardCharsets.UTF_8));
+		Assertions.assertEquals(new BigDecimal("1"), context.get("Number"));
+		Assertions.assertEquals(LocalDate.of(2024, 2, 29), context.get("Date"));
+		Assertions.assertEquals(Arrays.asList(new BigDecimal("1.5"), true, null), context.get("List"));
+		Assertions.assertEquals(Collections.singletonMap("Duration", Duration.ofHours(1)), context.get("Context"));
+	}
+
+	@Test
+	void bindInput() {
+		EmploymentForm employmentForm = new EmploymentForm();
+		employmentForm.setEmploymentStatus("UNEMPLOYED");
+
+		Map<String, Object> input = new LinkedHashMap<>();
+		input.put("Number", 1);
+		input.put("Rate", 0.08);
+		input.put("Date", "\uE15A2024-02-29");
+		input.put("Forms", Collections.singletonList(employmentForm));
+
+		// The values are bound in the form that Drools expects.
+		DMNContext context = DroolsInputReader.bind(input);
+		Assertions.assertEquals(new BigDecimal("1"), context.get("Number"));
+		Assertions.assertEquals(new BigDecimal("0.08"), context.get("Rate"));
+		Assertions.assertEquals(LocalDate.of(2024, 2, 29), context.get("Date"));
+		Assertions.assertEquals(Collections.singletonList(Collections.singletonMap("Employment Status", "UNEMPLOYED")), context.get("Forms"));
+
+		// The map of the binder needs to be the same as the one of convertValue.
+		Map<String, Object> expected = SerializationHelper.getInstance().getJSONMapper().convertValue(input, new TypeReference<Map<String, Object>>() {
+		});
+		Assertions.assertEquals(expected, InputBinder.toMap(input));
+		Assertions.assertEquals(Collections.singletonMap("Employment Status", "UNEMPLOYED"), InputBinder.toMap(employmentForm));
+	}
+
+	@Test
+	void executeModelWithWriter() throws Exception {
+		DMNDecisionSession decisionSession = new DMNDecisionSession();
+
+		Path decisionPath = Paths.get(getClass().getClassLoader().getResource("tck/0004-lending.dmn").toURI());
+		String decision = new String(Files.readAllBytes(decisionPath));
+		decisionSession.importModel("http://www.trisotech.com/definitions/_4e0f0b70-d31c-471c-bd52-5ca709ed362b", decision);
+
+		String input = "{\"ApplicantData\": {\"Age\": 40, \"MaritalStatus\": \"M\", \"EmploymentStatus\": \"EMPLOYED\", \"ExistingCustomer\": false, \"Monthly\": {\"Income\": 6000, \"Repayments\": 0, \"Expenses\": 2000}}, \"BureauData\": {\"Bankrupt\": false, \"CreditScore\": 649}, \"RequestedProduct\": {\"ProductType\": \"STANDARD LOAN\", \"Rate\": 0.08, \"Term\": 36, \"Amount\": 100000}, \"SupportingDocuments\": \"YES\"}";
+		Map<String, Object> inputs = SerializationHelper.getInstance().toClass(input, new TypeReference<Map<String, Object>>() {
+		});
+
+		ObjectMapper mapper = SerializationHelper.getInstance().getJSONMapper();
+		for (boolean debug : new boolean[]{false, true}) {
+			// The written JSON needs to be the same as the one of the serialized execution result.
+			JsonNode expected = mapper.readTree(SerializationHelper.getInstance().toJSON(decisionSession.executeModel("http://www.trisotech.com/definitions/_4e0f0b70-d31c-471c-bd52-5ca709ed362b", null, inputs, debug)));
+			Assertions.assertEquals("ACCEPT", expected.get("outputs").get("Adjudication").asText());
+
+			ByteArrayOutputStream output = new ByteArrayOutputStream();
+			decisionSession.executeModel("http://www.trisotech.com/definitions/_4e0f0b70-d31c-471c-bd52-5ca709ed362b", null, inputs, debug, output);
+			Assertions.assertEquals(expected, mapper.readTree(output.toByteArray()));
+
+			output = new ByteArrayOutputStream();
+			decisionSession.executeModel("http://www.trisotech.com/definitions/_4e0f0b70-d31c-471c-bd52-5ca709ed362b", null, new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), debug, output);
+			Assertions.assertEquals(expected, mapper.readTree(output.toByteArray()));
+		}
+
+		// Temporal values are encoded with the markers while they are written.
+		Map<String, Object> value = new LinkedHashMap<>();
+		value.put("Date", LocalDate.of(2000, 1, 1));
+		value.put("Dates", Arrays.asList(ZonedDateTime.of(2000, 1, 1, 10, 15, 0, 0, ZoneId.of("Europe/Berlin")), Duration.ofHours(1), null));
+		StringWriter writer = new StringWriter();
+		try (JsonGenerator generator = new JsonFactory().createGenerator(writer)) {
+			DroolsResultWriter.writeValue(generator, value);
+		}
+		Assertions.assertEquals(SerializationHelper.getInstance().toJSON(DroolsHelper.cleanOutput(value)), writer.toString());
+	}
+
 	@Test
 	void executeModelFirstWithValidAfterWithInvalidFEEL() throws IOException, URISyntaxException {
 		DecisionSession decisionSession = new DMNDecisionSession();
@@ -202,6 +323,23 @@ public class DMNDecisionSessionTest {
 		Assertions.assertEquals(expectedSource, message.getSource());
 	}
 
+	@Test
+	void importInvalidModel() throws Exception {
+		DMNDecisionSession decisionSession = new DMNDecisionSession();
+
+		Path decisionPath = Paths.get(getClass().getClassLoader().getResource("tck/0004-lending.dmn").toURI());
+		decisionSession.importModel("http://www.trisotech.com/definitions/_4e0f0b70-d31c-471c-bd52-5ca709ed362b", new String(Files.readAllBytes(decisionPath)));
+		DMNRuntime runtime = decisionSession.getRuntime();
+
+		Path invalidDecisionPath = Paths.get(getClass().getClassLoader().getResource("tck/0003-input-data-string-allowed-values-invalid-feel.dmn").toURI());
+		String invalidDecision = new String(Files.readAllBytes(invalidDecisionPath));
+		Assertions.assertThrows(ModelImportException.class, () -> decisionSession.importModel("https://github.com/agilepro/dmn-tck", invalidDecision));
+
+		// The invalid model has never been compiled, so the runtime of the session hasn't been replaced.
+		Assertions.assertSame(runtime, decisionSession.getRuntime());
+		Assertions.assertEquals(1, decisionSession.getModels().size());
+	}
+
 	@Test
 	void executeModelWithInvalidXML() throws IOException, URISyntaxException {
 		try {
@@ -307,6 +445,51 @@ public class DMNDecisionSessionTest {
 		Assertions.assertTrue(context.containsKey("importchildchild.ChildChildDecision"));
 	}
 
+	@Test
+	void importModels() throws Exception {
+		DMNDecisionSession decisionSession = new DMNDecisionSession();
+
+		Path decisionPath = Paths.get(getClass().getClassLoader().getResource("tck/0003-input-data-string-allowed-values.dmn").toURI());
+		String decision = new String(Files.readAllBytes(decisionPath));
+
+		Path otherDecisionPath = Paths.get(getClass().getClassLoader().getResource("tck/0004-lending.dmn").toURI());
+		String otherDecision = new String(Files.readAllBytes(otherDecisionPath));
+
+		{
+			Map<String, String> models = new LinkedHashMap<>();
+			models.put("https://github.com/agilepro/dmn-tck", decision);
+			models.put("http://www.trisotech.com/definitions/_4e0f0b70-d31c-471c-bd52-5ca709ed362b", otherDecision);
+
+			Map<String, ImportResult> importResults = decisionSession.importModels(models);
+			Assertions.assertEquals(models.keySet(), importResults.keySet());
+			Assertions.assertEquals(2, decisionSession.getModels().size());
+		}
+
+		{
+			Path invalidDecisionPath = Paths.get(getClass().getClassLoader().getResource("tck/0003-input-data-string-allowed-values-invalid-feel.dmn").toURI());
+			String invalidDecision = new String(Files.readAllBytes(invalidDecisionPath));
+
+			Path decisionServicePath = Paths.get(getClass().getClassLoader().getResource("tck/0085-decision-services.dmn").toURI());
+			String decisionService = new String(Files.readAllBytes(decisionServicePath));
+
+			// If one of the models is invalid, none of them are imported.
+			Map<String, String> models = new LinkedHashMap<>();
+			models.put("decision-services", decisionService);
+			models.put("https://github.com/agilepro/dmn-tck", invalidDecision);
+
+			ModelImportException exception = Assertions.assertThrows(ModelImportException.class, () -> decisionSession.importModels(models));
+			Assertions.assertTrue(exception.getResult().getMessages().stream().anyMatch(message -> message.getLevel() == Message.Level.ERROR));
+			Assertions.assertEquals(2, decisionSession.getModels().size());
+		}
+
+		Map<String, Object> inputs = new HashMap<>();
+		inputs.put("Employment Status", "UNEMPLOYED");
+
+		ExecutionResult executionResult = decisionSession.executeModel("https://github.com/agilepro/dmn-tck", inputs);
+		Assertions.assertEquals("You are UNEMPLOYED", executionResult.getOutputs().get("Employment Status Statement"));
+		Assertions.assertEquals(decision, decisionSession.getModel("https://github.com/agilepro/dmn-tck").getSource());
+	}
+
 	@Test
 	void importMultipleModelsWithDecisionsAsInput() throws Exception {
 		DMNDecisionSession decisionSession = new DMNDecisionSession();
@@ -350,6 +533,38 @@ public class DMNDecisionSessionTest {
 		Assertions.assertEquals("You are UNEMPLOYED", outputs.get("main"));
 	}
 
+	@Test
+	void executeCachedExpression() throws IOException {
+		DMNDecisionSession decisionSession = new DMNDecisionSession();
+
+		for (int i = 0; i < 10; i++) {
+			Map<String, Object> inputs = new HashMap<>();
+			inputs.put("Employment Status", "STUDENT" + i);
+
+			ExecutionResult executionResult = decisionSession.executeExpression("\"You are \" + Employment Status", inputs);
+			Assertions.assertEquals("You are STUDENT" + i, executionResult.getOutputs().get("main"));
+		}
+		Assertions.assertEquals(1, decisionSession.getExpressionEvaluator().getMisses());
+		Assertions.assertEquals(9, decisionSession.getExpressionEvaluator().getHits());
+
+		// If the type of an input changes, the expression needs to be compiled again.
+		{
+			Map<String, Object> inputs = new HashMap<>();
+			inputs.put("Employment Status", 1);
+
+			ExecutionResult executionResult = decisionSession.executeExpression("Employment Status + 1", inputs);
+			Assertions.assertEquals(new BigDecimal(2), executionResult.getOutputs().get("main"));
+			Assertions.assertEquals(2, decisionSession.getExpressionEvaluator().getSize());
+		}
+
+		// Expressions that can't be compiled are not kept, their messages are reported every time.
+		for (int i = 0; i < 2; i++) {
+			ExecutionResult executionResult = decisionSession.executeExpression("1 +* ", new HashMap<>());
+			Assertions.assertTrue(executionResult.getMessages().size() > 0);
+		}
+		Assertions.assertEquals(2, decisionSession.getExpressionEvaluator().getSize());
+	}
+
 	@Test
 	void executeGoldmanExpression() throws IOException {
 		GoldmanDecisionSession decisionSession = new GoldmanDecisionSession();
@@ -365,6 +580,62 @@ public class DMNDecisionSessionTest {
 		Assertions.assertEquals("You are UNEMPLOYED", outputs.get("main"));
 	}
 
+	@Test
+	void executeCamundaExpression() throws IOException {
+		CamundaDecisionSession decisionSession = new CamundaDecisionSession();
+
+		Map<String, Object> inputs = new HashMap<>();
+		inputs.put("EmploymentStatus", "UNEMPLOYED");
+
+		for (int i = 0; i < 2; i++) {
+			ExecutionResult executionResult = decisionSession.executeExpression("\"You are \" + EmploymentStatus", inputs);
+			Assertions.assertEquals("You are UNEMPLOYED", executionResult.getOutputs().get("main"));
+		}
+
+		// Lists and contexts are returned as java collections.
+		ExecutionResult executionResult = decisionSession.executeExpression("for x in 1..3 return {value: x, values: [x, x]}", inputs);
+		List<Map<String, Object>> outputs = (List<Map<String, Object>>) executionResult.getOutputs().get("main");
+		Assertions.assertEquals(3, outputs.size());
+		Assertions.assertEquals(0, BigDecimal.valueOf(3).compareTo(new BigDecimal(outputs.get(2).get("value").toString())));
+		Assertions.assertEquals(2, ((List<Object>) outputs.get(2).get("values")).size());
+
+		Assertions.assertThrows(ModelImportException.class, () -> decisionSession.executeExpression("1 +* ", inputs));
+	}
+
+	@Test
+	void executeCamundaExpressionWithValueMapper() throws IOException {
+		CamundaDecisionSession decisionSession = new CamundaDecisionSession();
+
+		// The amount is converted by the value mapper that is registered through SPI, see AmountValueMapper.
+		Map<String, Object> inputs = new HashMap<>();
+		inputs.put("amount", new Amount(BigDecimal.valueOf(41)));
+
+		ExecutionResult executionResult = decisionSession.executeExpression("amount + 1", inputs);
+		Assertions.assertEquals(0, BigDecimal.valueOf(42).compareTo(new BigDecimal(executionResult.getOutputs().get("main").toString())));
+	}
+
+	@Test
+	void executeGoldmanExpressionConcurrently() throws Exception {
+		GoldmanDecisionSession decisionSession = new GoldmanDecisionSession();
+
+		ExecutorService executorService = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<ExecutionResult>> futures = new ArrayList<>();
+			for (int i = 0; i < 200; i++) {
+				Map<String, Object> inputs = new HashMap<>();
+				inputs.put("EmploymentStatus", "STUDENT" + i);
+				futures.add(executorService.submit(() -> decisionSession.executeExpression("\"You are \" + EmploymentStatus", inputs)));
+			}
+
+			for (int i = 0; i < futures.size(); i++) {
+				Assertions.assertEquals("You are STUDENT" + i, futures.get(i).get().getOutputs().get("main"));
+			}
+		}
+		finally {
+			executorService.shutdown();
+		}
+	}
+
 	@Test
 	void importModelWithAny() throws Exception {
 		DMNDecisionSession decisionSession = new DMNDecisionSession();
@@ -378,4 +649,721 @@ public class DMNDecisionSessionTest {
 		Map<String, InputStructure> inputStructure = decisionSession.getInputStructure("https://declab.org/BgCaozcfUG");
 		Assertions.assertTrue(inputStructure.get("Input 1").getType().equals("Any"));
 	}
+
+	@Test
+	void executeModelConcurrently() throws Exception {
+		DMNDecisionSession decisionSession = new DMNDecisionSession();
+
+		Path decisionPath = Paths.get(getClass().getClassLoader().getResource("tck/0003-input-data-string-allowed-values.dmn").toURI());
+		String decision = new String(Files.readAllBytes(decisionPath));
+		decisionSession.importModel("https://github.com/agilepro/dmn-tck", decision);
+
+		ExecutorService executorService = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<ExecutionResult>> futures = new ArrayList<>();
+			for (int i = 0; i < 200; i++) {
+				// Every second execution is missing its input, which leads to an error message.
+				Map<String, Object> inputs = new HashMap<>();
+				if (i % 2 == 0) {
+					inputs.put("Employment Status", "UNEMPLOYED");
+				}
+				futures.add(executorService.submit(() -> decisionSession.executeModel("https://github.com/agilepro/dmn-tck", inputs, true)));
+			}
+
+			for (int i = 0; i < futures.size(); i++) {
+				ExecutionResult executionResult = futures.get(i).get();
+				if (i % 2 == 0) {
+					Assertions.assertEquals("You are UNEMPLOYED", executionResult.getOutputs().get("Employment Status Statement"));
+					Assertions.assertEquals(0, executionResult.getMessages().size());
+				}
+				else {
+					Assertions.assertEquals(1, executionResult.getMessages().size());
+				}
+				Assertions.assertEquals(1, executionResult.getAccessLog().size());
+				Assertions.assertEquals(1, executionResult.getAccessLog().get(0).getChildren().size());
+			}
+		}
+		finally {
+			executorService.shutdown();
+		}
+	}
+
+	@Test
+	void executeModelWithPool() throws Exception {
+		DMNDecisionSession decisionSession = new DMNDecisionSession(2);
+		Assertions.assertEquals(2, decisionSession.getPool().getSize());
+
+		Path decisionPath = Paths.get(getClass().getClassLoader().getResource("tck/0003-input-data-string-allowed-values.dmn").toURI());
+		String decision = new String(Files.readAllBytes(decisionPath));
+		decisionSession.importModel("https://github.com/agilepro/dmn-tck", decision);
+		Assertions.assertEquals(2, decisionSession.getPool().getSize());
+
+		Map<String, Object> inputs = new HashMap<>();
+		inputs.put("Employment Status", "UNEMPLOYED");
+
+		ExecutorService executorService = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<ExecutionResult>> futures = new ArrayList<>();
+			for (int i = 0; i < 100; i++) {
+				futures.add(executorService.submit(() -> decisionSession.executeModel("https://github.com/agilepro/dmn-tck", inputs)));
+			}
+			for (Future<ExecutionResult> future : futures) {
+				Assertions.assertEquals("You are UNEMPLOYED", future.get().getOutputs().get("Employment Status Statement"));
+			}
+		}
+		finally {
+			executorService.shutdown();
+		}
+
+		// All runtimes must have been returned to the pool.
+		Assertions.assertEquals(0, decisionSession.getPool().getActive());
+		Assertions.assertEquals(0, decisionSession.getPool().getWaiters());
+		Assertions.assertEquals(0.0, decisionSession.getPool().getUtilization());
+	}
+
+	@Test
+	void executeModelWithPoolAndListener() throws Exception {
+		DMNDecisionSession decisionSession = new DMNDecisionSession(2);
+
+		Path decisionPath = Paths.get(getClass().getClassLoader().getResource("tck/0003-input-data-string-allowed-values.dmn").toURI());
+		String decision = new String(Files.readAllBytes(decisionPath));
+		decisionSession.importModel("https://github.com/agilepro/dmn-tck", decision);
+
+		AtomicInteger evaluations = new AtomicInteger();
+		decisionSession.getRuntime().addListener(new DMNRuntimeEventListener() {
+			@Override
+			public void afterEvaluateAll(AfterEvaluateAllEvent event) {
+				evaluations.incrementAndGet();
+			}
+		});
+
+		Map<String, Object> inputs = new HashMap<>();
+		inputs.put("Employment Status", "UNEMPLOYED");
+
+		// Both runtimes are used one after another, the listener needs to receive the events of both.
+		DMNRuntime runtime = decisionSession.getPool().checkout();
+		try {
+			decisionSession.executeModel("https://github.com/agilepro/dmn-tck", inputs);
+		}
+		finally {
+			decisionSession.getPool().release(runtime);
+		}
+		runtime = decisionSession.getPool().checkout();
+		try {
+			decisionSession.executeModel("https://github.com/agilepro/dmn-tck", inputs);
+		}
+		finally {
+			decisionSession.getPool().release(runtime);
+		}
+
+		Assertions.assertEquals(2, evaluations.get());
+	}
+
+	@Test
+	void executeBatch() throws Exception {
+		DMNDecisionSession decisionSession = new DMNDecisionSession();
+
+		Path decisionPath = Paths.get(getClass().getClassLoader().getResource("tck/0003-input-data-string-allowed-values.dmn").toURI());
+		String decision = new String(Files.readAllBytes(decisionPath));
+		decisionSession.importModel("https://github.com/agilepro/dmn-tck", decision);
+
+		String[] employmentStatuses = {"UNEMPLOYED", "EMPLOYED", "SELF-EMPLOYED", "STUDENT"};
+
+		List<Map<String, Object>> inputs = new ArrayList<>();
+		for (int i = 0; i < 500; i++) {
+			// The execution with the index 300 is missing its input, which leads to an error message.
+			Map<String, Object> input = new HashMap<>();
+			if (i != 300) {
+				input.put("Employment Status", employmentStatuses[i % employmentStatuses.length]);
+			}
+			inputs.add(input);
+		}
+
+		{
+			List<ExecutionResult> executionResults = decisionSession.executeBatch("https://github.com/agilepro/dmn-tck", inputs);
+			Assertions.assertEquals(500, executionResults.size());
+			for (int i = 0; i < executionResults.size(); i++) {
+				if (i == 300) {
+					Assertions.assertTrue(executionResults.get(i).hasErrors());
+					continue;
+				}
+				Assertions.assertEquals("You are " + employmentStatuses[i % employmentStatuses.length], executionResults.get(i).getOutputs().get("Employment Status Statement"));
+			}
+		}
+
+		{
+			List<ExecutionResult> executionResults = decisionSession.executeBatch("https://github.com/agilepro/dmn-tck", inputs, true);
+			Assertions.assertEquals(301, executionResults.size());
+			Assertions.assertTrue(executionResults.get(300).hasErrors());
+			for (int i = 0; i < 300; i++) {
+				Assertions.assertFalse(executionResults.get(i).hasErrors());
+			}
+		}
+	}
+
+	@Test
+	void executeModelAsync() throws Exception {
+		DMNDecisionSession decisionSession = new DMNDecisionSession();
+
+		Path decisionPath = Paths.get(getClass().getClassLoader().getResource("tck/0003-input-data-string-allowed-values.dmn").toURI());
+		String decision = new String(Files.readAllBytes(decisionPath));
+		decisionSession.importModel("https://github.com/agilepro/dmn-tck", decision);
+
+		ExecutorService executorService = Executors.newFixedThreadPool(4);
+		try {
+			Map<String, Object> inputs = new HashMap<>();
+			inputs.put("Employment Status", "UNEMPLOYED");
+
+			List<CompletableFuture<ExecutionResult>> futures = new ArrayList<>();
+			for (int i = 0; i < 50; i++) {
+				futures.add(decisionSession.executeModelAsync("https://github.com/agilepro/dmn-tck", inputs, i % 2 == 0, executorService));
+			}
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get();
+
+			for (CompletableFuture<ExecutionResult> future : futures) {
+				Assertions.assertEquals("You are UNEMPLOYED", future.get().getOutputs().get("Employment Status Statement"));
+			}
+
+			ExecutionException exception = Assertions.assertThrows(ExecutionException.class, () -> decisionSession.executeModelAsync("namespace", inputs, executorService).get());
+			Assertions.assertTrue(exception.getCause() instanceof ModelNotFoundException);
+		}
+		finally {
+			executorService.shutdown();
+		}
+	}
+
+	@Test
+	void executeModelDuringImport() throws Exception {
+		DMNDecisionSession decisionSession = new DMNDecisionSession();
+
+		Path decisionPath = Paths.get(getClass().getClassLoader().getResource("tck/0003-input-data-string-allowed-values.dmn").toURI());
+		String decision = new String(Files.readAllBytes(decisionPath));
+		decisionSession.importModel("https://github.com/agilepro/dmn-tck", decision);
+
+		Path otherDecisionPath = Paths.get(getClass().getClassLoader().getResource("tck/0004-lending.dmn").toURI());
+		String otherDecision = new String(Files.readAllBytes(otherDecisionPath));
+
+		Map<String, Object> inputs = new HashMap<>();
+		inputs.put("Employment Status", "UNEMPLOYED");
+
+		ExecutorService executorService = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<ExecutionResult>> futures = new ArrayList<>();
+			for (int i = 0; i < 400; i++) {
+				futures.add(executorService.submit(() -> decisionSession.executeModel("https://github.com/agilepro/dmn-tck", inputs, true)));
+			}
+
+			// The other model is imported and deleted while the executions are running.
+			for (int i = 0; i < 5; i++) {
+				decisionSession.importModel("http://www.trisotech.com/definitions/_4e0f0b70-d31c-471c-bd52-5ca709ed362b", otherDecision);
+				decisionSession.deleteModel("http://www.trisotech.com/definitions/_4e0f0b70-d31c-471c-bd52-5ca709ed362b");
+			}
+
+			for (Future<ExecutionResult> future : futures) {
+				Assertions.assertEquals("You are UNEMPLOYED", future.get().getOutputs().get("Employment Status Statement"));
+			}
+		}
+		finally {
+			executorService.shutdown();
+		}
+
+		Assertions.assertEquals(1, decisionSession.getModels().size());
+		Assertions.assertEquals(0, decisionSession.getPool().getActive());
+	}
+
+	@Test
+	void executeModelWithTrace() throws Exception {
+		DMNDecisionSession decisionSession = new DMNDecisionSession();
+
+		Path decisionPath = Paths.get(getClass().getClassLoader().getResource("tck/0004-lending.dmn").toURI());
+		decisionSession.importModel("http://www.trisotech.com/definitions/_4e0f0b70-d31c-471c-bd52-5ca709ed362b", new String(Files.readAllBytes(decisionPath)));
+		Path otherDecisionPath = Paths.get(getClass().getClassLoader().getResource("tck/0085-decision-services.dmn").toURI());
+		decisionSession.importModel("http://www.montera.com.au/spec/DMN/0085-decision-services", new String(Files.readAllBytes(otherDecisionPath)));
+
+		Map<String, Object> inputs = SerializationHelper.getInstance().toClass("{\"ApplicantData\": {\"Age\": 40, \"MaritalStatus\": \"M\", \"EmploymentStatus\": \"EMPLOYED\", \"ExistingCustomer\": false, \"Monthly\": {\"Income\": 6000, \"Repayments\": 0, \"Expenses\": 2000}}, \"BureauData\": {\"Bankrupt\": false, \"CreditScore\": 649}, \"RequestedProduct\": {\"ProductType\": \"STANDARD LOAN\", \"Rate\": 0.08, \"Term\": 36, \"Amount\": 100000}, \"SupportingDocuments\": \"YES\"}", new TypeReference<Map<String, Object>>() {
+		});
+		Map<String, Object> otherInputs = new HashMap<>();
+		otherInputs.put("decision_003_input_1", "B");
+		otherInputs.put("decision_003_input_2", "C");
+		otherInputs.put("inputData_003", "D");
+
+		assertTrace(decisionSession, "http://www.trisotech.com/definitions/_4e0f0b70-d31c-471c-bd52-5ca709ed362b", null, inputs);
+		assertTrace(decisionSession, "http://www.montera.com.au/spec/DMN/0085-decision-services", "decisionService_003", otherInputs);
+	}
+
+	@Test
+	void executeModelWithFailingListener() throws Exception {
+		DMNDecisionSession decisionSession = new DMNDecisionSession();
+
+		Path decisionPath = Paths.get(getClass().getClassLoader().getResource("tck/0004-lending.dmn").toURI());
+		decisionSession.importModel("http://www.trisotech.com/definitions/_4e0f0b70-d31c-471c-bd52-5ca709ed362b", new String(Files.readAllBytes(decisionPath)));
+
+		Map<String, Object> inputs = SerializationHelper.getInstance().toClass("{\"ApplicantData\": {\"Age\": 40, \"MaritalStatus\": \"M\", \"EmploymentStatus\": \"EMPLOYED\", \"ExistingCustomer\": false, \"Monthly\": {\"Income\": 6000, \"Repayments\": 0, \"Expenses\": 2000}}, \"BureauData\": {\"Bankrupt\": false, \"CreditScore\": 649}, \"RequestedProduct\": {\"ProductType\": \"STANDARD LOAN\", \"Rate\": 0.08, \"Term\": 36, \"Amount\": 100000}, \"SupportingDocuments\": \"YES\"}", new TypeReference<Map<String, Object>>() {
+		});
+		ExecutionResult expectedExecutionResult = decisionSession.executeModel("http://www.trisotech.com/definitions/_4e0f0b70-d31c-471c-bd52-5ca709ed362b", inputs, true);
+
+		// The listener is added before the collectors of the execution, so they would miss every event if it wasn't isolated.
+		DMNRuntimeEventListener listener = new DMNRuntimeEventListener() {
+			@Override
+			public void beforeEvaluateDecision(BeforeEvaluateDecisionEvent event) {
+				throw new IllegalStateException();
+			}
+
+			@Override
+			public void afterEvaluateDecision(AfterEvaluateDecisionEvent event) {
+				throw new IllegalStateException();
+			}
+		};
+		ExecutionResult executionResult;
+		decisionSession.getDispatcher().addListener(listener);
+		try {
+			executionResult = decisionSession.executeModel("http://www.trisotech.com/definitions/_4e0f0b70-d31c-471c-bd52-5ca709ed362b", inputs, true);
+		}
+		finally {
+			decisionSession.getDispatcher().removeListener(listener);
+		}
+
+		Assertions.assertEquals(expectedExecutionResult.getOutputs(), executionResult.getOutputs());
+		Assertions.assertEquals(SerializationHelper.getInstance().toJSON(expectedExecutionResult.getAccessLog()), SerializationHelper.getInstance().toJSON(executionResult.getAccessLog()));
+		Assertions.assertEquals(SerializationHelper.getInstance().toJSON(expectedExecutionResult.getContext()), SerializationHelper.getInstance().toJSON(executionResult.getContext()));
+	}
+
+	@Test
+	void executeModelWithTraceLimits() throws Exception {
+		DMNDecisionSession decisionSession = new DMNDecisionSession();
+
+		Path decisionPath = Paths.get(getClass().getClassLoader().getResource("tck/0004-lending.dmn").toURI());
+		decisionSession.importModel("http://www.trisotech.com/definitions/_4e0f0b70-d31c-471c-bd52-5ca709ed362b", new String(Files.readAllBytes(decisionPath)));
+
+		Map<String, Object> inputs = SerializationHelper.getInstance().toClass("{\"ApplicantData\": {\"Age\": 40, \"MaritalStatus\": \"M\", \"EmploymentStatus\": \"EMPLOYED\", \"ExistingCustomer\": false, \"Monthly\": {\"Income\": 6000, \"Repayments\": 0, \"Expenses\": 2000}}, \"BureauData\": {\"Bankrupt\": false, \"CreditScore\": 649}, \"RequestedProduct\": {\"ProductType\": \"STANDARD LOAN\", \"Rate\": 0.08, \"Term\": 36, \"Amount\": 100000}, \"SupportingDocuments\": \"YES\"}", new TypeReference<Map<String, Object>>() {
+		});
+
+		ExecutionResult executionResult = decisionSession.executeModel("http://www.trisotech.com/definitions/_4e0f0b70-d31c-471c-bd52-5ca709ed362b", inputs, true);
+		Assertions.assertTrue(countAccesses(executionResult.getAccessLog()) > 4);
+
+		// The outputs are not limited, only the trace is.
+		decisionSession.setTraceLimits(new DroolsTraceLimits(4, 2, 2, 20));
+		ExecutionResult limitedExecutionResult = decisionSession.executeModel("http://www.trisotech.com/definitions/_4e0f0b70-d31c-471c-bd52-5ca709ed362b", inputs, true);
+		Assertions.assertEquals(executionResult.getOutputs(), limitedExecutionResult.getOutputs());
+		Assertions.assertTrue(countAccesses(limitedExecutionResult.getAccessLog()) <= 4);
+
+		ModelAccess root = limitedExecutionResult.getAccessLog().get(0);
+		Assertions.assertEquals(3, root.getChildren().size());
+		Assertions.assertEquals(DroolsTraceLimits.TRUNCATED, root.getChildren().get(2).getName());
+		// The structured inputs are too big, the small ones are kept.
+		Assertions.assertEquals(DroolsTraceLimits.TRUNCATED, root.getEntryContext().get("ApplicantData"));
+		Assertions.assertEquals(DroolsTraceLimits.TRUNCATED, root.getEntryContext().get("RequestedProduct"));
+		Assertions.assertEquals("YES", root.getEntryContext().get("SupportingDocuments"));
+
+		decisionSession.setTraceLimits(null);
+		Assertions.assertEquals(countAccesses(executionResult.getAccessLog()), countAccesses(decisionSession.executeModel("http://www.trisotech.com/definitions/_4e0f0b70-d31c-471c-bd52-5ca709ed362b", inputs, true).getAccessLog()));
+
+		DroolsTraceLimits limits = new DroolsTraceLimits(1, 2, 2, 30);
+		Assertions.assertEquals(Arrays.asList("a", "b", DroolsTraceLimits.TRUNCATED), limits.limitValue(Arrays.asList("a", "b", "c", "d")));
+		Assertions.assertEquals(Collections.singletonMap("a", Collections.singletonMap("b", DroolsTraceLimits.TRUNCATED)), limits.limitValue(Collections.singletonMap("a", Collections.singletonMap("b", Collections.singletonList("c")))));
+		Assertions.assertEquals(DroolsTraceLimits.TRUNCATED, limits.limitValue("This string is longer than the limit."));
+		List<String> value = Arrays.asList("a", "b");
+		Assertions.assertSame(value, limits.limitValue(value));
+	}
+
+	@Test
+	void executeModelWithTraceSink(@TempDir Path temporaryDirectory) throws Exception {
+		DMNDecisionSession decisionSession = new DMNDecisionSession();
+
+		Path decisionPath = Paths.get(getClass().getClassLoader().getResource("tck/0004-lending.dmn").toURI());
+		decisionSession.importModel("http://www.trisotech.com/definitions/_4e0f0b70-d31c-471c-bd52-5ca709ed362b", new String(Files.readAllBytes(decisionPath)));
+
+		Map<String, Object> inputs = SerializationHelper.getInstance().toClass("{\"ApplicantData\": {\"Age\": 40, \"MaritalStatus\": \"M\", \"EmploymentStatus\": \"EMPLOYED\", \"ExistingCustomer\": false, \"Monthly\": {\"Income\": 6000, \"Repayments\": 0, \"Expenses\": 2000}}, \"BureauData\": {\"Bankrupt\": false, \"CreditScore\": 649}, \"RequestedProduct\": {\"ProductType\": \"STANDARD LOAN\", \"Rate\": 0.08, \"Term\": 36, \"Amount\": 100000}, \"SupportingDocuments\": \"YES\"}", new TypeReference<Map<String, Object>>() {
+		});
+
+		ExecutionResult executionResult = decisionSession.executeModel("http://www.trisotech.com/definitions/_4e0f0b70-d31c-471c-bd52-5ca709ed362b", inputs, true);
+		Assertions.assertFalse(executionResult.getContext().isEmpty());
+
+		// The segments are small, so the trace spans several of them.
+		Path tracePath = temporaryDirectory.resolve("trace.bin");
+		ExecutionResult tracedExecutionResult;
+		try (DroolsFileTraceSink traceSink = new DroolsFileTraceSink(tracePath, 256)) {
+			tracedExecutionResult = decisionSession.executeModel("http://www.trisotech.com/definitions/_4e0f0b70-d31c-471c-bd52-5ca709ed362b", null, inputs, traceSink);
+		}
+		Assertions.assertEquals(executionResult.getOutputs(), tracedExecutionResult.getOutputs());
+		Assertions.assertTrue(tracedExecutionResult.getContext().isEmpty());
+		Assertions.assertTrue(tracedExecutionResult.getAccessLog().isEmpty());
+		// Callers may still add to the empty trace, like to the trace of an execution with debug.
+		Assertions.assertDoesNotThrow(() -> tracedExecutionResult.getContext().put("Decision", new HashMap<>()));
+		Assertions.assertTrue(Files.size(tracePath) > 256);
+
+		DroolsMemoryTraceSink traceSink = DroolsTraceReader.read(tracePath);
+		ObjectMapper mapper = SerializationHelper.getInstance().getJSONMapper();
+		Assertions.assertEquals(mapper.readTree(SerializationHelper.getInstance().toJSON(executionResult.getContext())), mapper.readTree(SerializationHelper.getInstance().toJSON(traceSink.getDecisions())));
+		Assertions.assertEquals(mapper.readTree(SerializationHelper.getInstance().toJSON(executionResult.getAccessLog())), mapper.readTree(SerializationHelper.getInstance().toJSON(traceSink.getModelAccessLog())));
+
+		// The file is truncated to the written records when the sink is closed.
+		Path otherTracePath = temporaryDirectory.resolve("other-trace.bin");
+		try (DroolsFileTraceSink otherTraceSink = new DroolsFileTraceSink(otherTracePath)) {
+			decisionSession.executeModel("http://www.trisotech.com/definitions/_4e0f0b70-d31c-471c-bd52-5ca709ed362b", null, inputs, otherTraceSink);
+		}
+		Assertions.assertEquals(Files.size(tracePath), Files.size(otherTracePath));
+
+		Files.write(tracePath, "{}".getBytes(StandardCharsets.UTF_8));
+		Assertions.assertThrows(IOException.class, () -> DroolsTraceReader.read(tracePath));
+	}
+
+	@Test
+	void executeModelWithLatencies() throws Exception {
+		DMNDecisionSession decisionSession = new DMNDecisionSession();
+
+		Path decisionPath = Paths.get(getClass().getClassLoader().getResource("tck/0004-lending.dmn").toURI());
+		decisionSession.importModel("http://www.trisotech.com/definitions/_4e0f0b70-d31c-471c-bd52-5ca709ed362b", new String(Files.readAllBytes(decisionPath)));
+		Path otherDecisionPath = Paths.get(getClass().getClassLoader().getResource("tck/0085-decision-services.dmn").toURI());
+		decisionSession.importModel("http://www.montera.com.au/spec/DMN/0085-decision-services", new String(Files.readAllBytes(otherDecisionPath)));
+
+		Map<String, Object> inputs = SerializationHelper.getInstance().toClass("{\"ApplicantData\": {\"Age\": 40, \"MaritalStatus\": \"M\", \"EmploymentStatus\": \"EMPLOYED\", \"ExistingCustomer\": false, \"Monthly\": {\"Income\": 6000, \"Repayments\": 0, \"Expenses\": 2000}}, \"BureauData\": {\"Bankrupt\": false, \"CreditScore\": 649}, \"RequestedProduct\": {\"ProductType\": \"STANDARD LOAN\", \"Rate\": 0.08, \"Term\": 36, \"Amount\": 100000}, \"SupportingDocuments\": \"YES\"}", new TypeReference<Map<String, Object>>() {
+		});
+
+		// The durations are recorded without debug.
+		ExecutionResult executionResult = null;
+		for (int i = 0; i < 3; i++) {
+			executionResult = decisionSession.executeModel("http://www.trisotech.com/definitions/_4e0f0b70-d31c-471c-bd52-5ca709ed362b", inputs);
+		}
+
+		Map<String, DroolsHistogram> latencies = decisionSession.getLatencies("http://www.trisotech.com/definitions/_4e0f0b70-d31c-471c-bd52-5ca709ed362b");
+		Assertions.assertTrue(latencies.keySet().containsAll(executionResult.getOutputs().keySet()));
+		// The knowledge models are invoked several times per execution.
+		Assertions.assertTrue(latencies.size() > executionResult.getOutputs().size());
+		for (String decisionName : executionResult.getOutputs().keySet()) {
+			Assertions.assertEquals(3, latencies.get(decisionName).getCount());
+		}
+		for (DroolsHistogram histogram : latencies.values()) {
+			Assertions.assertTrue(histogram.getCount() > 0);
+			Assertions.assertTrue(histogram.getPercentile(50) <= histogram.getPercentile(99));
+			Assertions.assertTrue(histogram.getPercentile(99) <= histogram.getMax());
+		}
+
+		Map<String, Object> otherInputs = new HashMap<>();
+		otherInputs.put("decision_003_input_1", "B");
+		otherInputs.put("decision_003_input_2", "C");
+		otherInputs.put("inputData_003", "D");
+		decisionSession.executeModel("http://www.montera.com.au/spec/DMN/0085-decision-services", "decisionService_003", otherInputs);
+		Assertions.assertEquals(1, decisionSession.getLatency("http://www.montera.com.au/spec/DMN/0085-decision-services", "decisionService_003").getCount());
+
+		// The durations are dropped together with the model.
+		decisionSession.deleteModel("http://www.trisotech.com/definitions/_4e0f0b70-d31c-471c-bd52-5ca709ed362b");
+		Assertions.assertTrue(decisionSession.getLatencies("http://www.trisotech.com/definitions/_4e0f0b70-d31c-471c-bd52-5ca709ed362b").isEmpty());
+		Assertions.assertNotNull(decisionSession.getLatency("http://www.montera.com.au/spec/DMN/0085-decision-services", "decisionService_003"));
+
+		decisionSession.resetLatencies();
+		Assertions.assertNull(decisionSession.getLatency("http://www.montera.com.au/spec/DMN/0085-decision-services", "decisionService_003"));
+
+		DroolsHistogram histogram = new DroolsHistogram();
+		Assertions.assertEquals(0, histogram.getPercentile(50));
+		for (int i = 1; i <= 1000; i++) {
+			histogram.record(i);
+		}
+		Assertions.assertEquals(1000, histogram.getCount());
+		Assertions.assertEquals(500.5, histogram.getMean());
+		Assertions.assertEquals(1, histogram.getPercentile(0));
+		Assertions.assertEquals(1000, histogram.getPercentile(100));
+		// The percentiles are at most 12.5% too large.
+		Assertions.assertTrue(histogram.getPercentile(50) >= 500 && histogram.getPercentile(50) <= 563);
+		Assertions.assertTrue(histogram.getPercentile(90) >= 900 && histogram.getPercentile(90) <= 1013);
+	}
+
+	@Test
+	void rebuildTraceContexts() {
+		// Every access is based on the exit context of its previous sibling, which results in a long chain of changes.
+		DroolsMemoryTraceSink traceSink = new DroolsMemoryTraceSink();
+		traceSink.enterAccess(0, DroolsTraceSink.NONE, ModelAccess.ModelAccessType.MODEL, "model", DroolsTraceSink.NONE, false, Collections.singletonMap("input", "a"));
+		int previousId = 0;
+		boolean previousExit = false;
+		for (int id = 1; id <= 1000; id++) {
+			traceSink.enterAccess(id, 0, ModelAccess.ModelAccessType.DECISION, "decision" + id, previousId, previousExit, Collections.emptyMap());
+			Map<String, Object> changes = new HashMap<>();
+			changes.put("decision" + id, new BigDecimal(id));
+			changes.put("decision" + (id - 1), DroolsTraceSink.REMOVED);
+			traceSink.exitAccess(id, id, false, changes);
+			previousId = id;
+			previousExit = true;
+		}
+
+		List<ModelAccess> children = traceSink.getModelAccessLog().get(0).getChildren();
+		Assertions.assertEquals(1000, children.size());
+		for (int i = 0; i < 1000; i++) {
+			Map<String, Object> exitContext = children.get(i).getExitContext();
+			Assertions.assertEquals(2, exitContext.size());
+			Assertions.assertEquals("a", exitContext.get("input"));
+			Assertions.assertEquals(new BigDecimal(i + 1), exitContext.get("decision" + (i + 1)));
+			Assertions.assertFalse(exitContext.containsKey("decision" + i));
+		}
+		Assertions.assertEquals(Collections.singletonMap("input", "a"), children.get(0).getEntryContext());
+
+		// The contexts share their entries, so they can't be modified.
+		Assertions.assertThrows(UnsupportedOperationException.class, () -> children.get(0).getExitContext().put("input", "b"));
+		Assertions.assertThrows(UnsupportedOperationException.class, () -> traceSink.getModelAccessLog().get(0).getEntryContext().put("input", "b"));
+		Assertions.assertEquals("a", children.get(999).getExitContext().get("input"));
+	}
+
+	private int countAccesses(List<ModelAccess> accessLog) {
+		int count = 0;
+		for (ModelAccess modelAccess : accessLog) {
+			if (!DroolsTraceLimits.TRUNCATED.equals(modelAccess.getName())) {
+				count += 1 + countAccesses(modelAccess.getChildren());
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * The contexts of the trace only store their changes, they need to be the same as complete copies of the contexts.
+	 */
+	private void assertTrace(DMNDecisionSession decisionSession, String namespace, String decisionServiceName, Map<String, Object> inputs) throws ModelNotFoundException {
+		List<Map<String, Object>> expectedContexts = new ArrayList<>();
+		DMNRuntimeEventListener listener = new DMNRuntimeEventListener() {
+			@Override
+			public void beforeEvaluateAll(BeforeEvaluateAllEvent event) {
+				expectedContexts.add(DroolsHelper.cleanContext(event.getResult().getContext().getAll()));
+			}
+
+			@Override
+			public void afterEvaluateAll(AfterEvaluateAllEvent event) {
+				expectedContexts.add(DroolsHelper.cleanContext(event.getResult().getContext().getAll()));
+			}
+
+			@Override
+			public void beforeEvaluateDecisionService(BeforeEvaluateDecisionServiceEvent event) {
+				expectedContexts.add(DroolsHelper.cleanContext(event.getResult().getContext().getAll()));
+			}
+
+			@Override
+			public void afterEvaluateDecisionService(AfterEvaluateDecisionServiceEvent event) {
+				expectedContexts.add(DroolsHelper.cleanContext(event.getResult().getContext().getAll()));
+			}
+
+			@Override
+			public void beforeEvaluateDecision(BeforeEvaluateDecisionEvent event) {
+				expectedContexts.add(DroolsHelper.cleanContext(event.getResult().getContext().getAll()));
+			}
+
+			@Override
+			public void afterEvaluateDecision(AfterEvaluateDecisionEvent event) {
+				expectedContexts.add(DroolsHelper.cleanContext(event.getResult().getContext().getAll()));
+			}
+
+			@Override
+			public void beforeInvokeBKM(BeforeInvokeBKMEvent event) {
+				expectedContexts.add(DroolsHelper.cleanContext(event.getResult().getContext().getAll()));
+			}
+
+			@Override
+			public void afterInvokeBKM(AfterInvokeBKMEvent event) {
+				expectedContexts.add(DroolsHelper.cleanContext(event.getResult().getContext().getAll()));
+			}
+		};
+
+		// The listener receives the events of the execution on this thread, see DroolsDispatcher.
+		ExecutionResult executionResult;
+		decisionSession.getDispatcher().addListener(listener);
+		try {
+			executionResult = decisionSession.executeModel(namespace, decisionServiceName, inputs, true);
+		}
+		finally {
+			decisionSession.getDispatcher().removeListener(listener);
+		}
+		Assertions.assertFalse(executionResult.hasErrors());
+
+		List<Map<String, Object>> contexts = new ArrayList<>();
+		for (ModelAccess modelAccess : executionResult.getAccessLog()) {
+			collectContexts(modelAccess, contexts);
+		}
+		Assertions.assertTrue(contexts.size() > 2);
+		Assertions.assertEquals(expectedContexts, contexts);
+	}
+
+	private void collectContexts(ModelAccess modelAccess, List<Map<String, Object>> contexts) {
+		contexts.add(modelAccess.getEntryContext());
+		for (ModelAccess child : modelAccess.getChildren()) {
+			collectContexts(child, contexts);
+		}
+		contexts.add(modelAccess.getExitContext());
+	}
+
+	@Test
+	void executeModelWithSampler() throws Exception {
+		DMNDecisionSession decisionSession = new DMNDecisionSession();
+
+		Path decisionPath = Paths.get(getClass().getClassLoader().getResource("tck/0003-input-data-string-allowed-values.dmn").toURI());
+		String decision = new String(Files.readAllBytes(decisionPath));
+		decisionSession.importModel("https://github.com/agilepro/dmn-tck", decision);
+
+		Map<String, Object> inputs = new HashMap<>();
+		inputs.put("Employment Status", "UNEMPLOYED");
+
+		List<ExecutionResult> traces = Collections.synchronizedList(new ArrayList<>());
+		decisionSession.setSampler(DroolsSampler.everyNth(2), (namespace, executionResult) -> {
+			Assertions.assertEquals("https://github.com/agilepro/dmn-tck", namespace);
+			traces.add(executionResult);
+		});
+
+		for (int i = 0; i < 4; i++) {
+			ExecutionResult executionResult = decisionSession.executeModel("https://github.com/agilepro/dmn-tck", inputs);
+			Assertions.assertEquals("You are UNEMPLOYED", executionResult.getOutputs().get("Employment Status Statement"));
+			// The caller hasn't requested the trace, so it must not receive the trace of a sampled execution.
+			Assertions.assertTrue(executionResult.getAccessLog().isEmpty());
+		}
+		Assertions.assertEquals(2, traces.size());
+		for (ExecutionResult trace : traces) {
+			Assertions.assertEquals("You are UNEMPLOYED", trace.getOutputs().get("Employment Status Statement"));
+			Assertions.assertEquals(1, trace.getAccessLog().size());
+		}
+
+		// Executions with debug are not passed to the sink.
+		traces.clear();
+		decisionSession.setSampler((namespace, sampledInputs) -> "STUDENT".equals(sampledInputs.get("Employment Status")), (namespace, executionResult) -> traces.add(executionResult));
+		decisionSession.executeModel("https://github.com/agilepro/dmn-tck", inputs);
+		decisionSession.executeModel("https://github.com/agilepro/dmn-tck", Collections.singletonMap("Employment Status", "STUDENT"));
+		decisionSession.executeModel("https://github.com/agilepro/dmn-tck", Collections.singletonMap("Employment Status", "STUDENT"), true);
+		decisionSession.executeModel("https://github.com/agilepro/dmn-tck", null, Collections.singletonMap("Employment Status", "STUDENT"), false, new ByteArrayOutputStream());
+		Assertions.assertEquals(2, traces.size());
+		Assertions.assertEquals("You are STUDENT", traces.get(0).getOutputs().get("Employment Status Statement"));
+
+		// A failing sink must not fail the execution.
+		decisionSession.setSampler(DroolsSampler.percentage(100), (namespace, executionResult) -> {
+			throw new IllegalStateException();
+		});
+		Assertions.assertEquals("You are UNEMPLOYED", decisionSession.executeModel("https://github.com/agilepro/dmn-tck", inputs).getOutputs().get("Employment Status Statement"));
+
+		decisionSession.setSampler(null, null);
+		traces.clear();
+		decisionSession.executeModel("https://github.com/agilepro/dmn-tck", inputs);
+		Assertions.assertTrue(traces.isEmpty());
+	}
+
+	@Test
+	void warmUp() throws Exception {
+		DMNDecisionSession decisionSession = new DMNDecisionSession();
+
+		Path decisionPath = Paths.get(getClass().getClassLoader().getResource("tck/0003-input-data-string-allowed-values.dmn").toURI());
+		String decision = new String(Files.readAllBytes(decisionPath));
+		decisionSession.importModel("https://github.com/agilepro/dmn-tck", decision);
+
+		Path otherDecisionPath = Paths.get(getClass().getClassLoader().getResource("tck/0004-lending.dmn").toURI());
+		String otherDecision = new String(Files.readAllBytes(otherDecisionPath));
+		decisionSession.importModel("http://www.trisotech.com/definitions/_4e0f0b70-d31c-471c-bd52-5ca709ed362b", otherDecision);
+
+		// The first allowed value is used for the sample.
+		Map<String, InputStructure> inputStructure = decisionSession.getInputStructure("https://github.com/agilepro/dmn-tck");
+		Assertions.assertEquals("UNEMPLOYED", inputStructure.get("Employment Status").createSample());
+
+		Map<String, Duration> durations = decisionSession.warmUp(10);
+		Assertions.assertEquals(2, durations.size());
+		Assertions.assertTrue(durations.containsKey("https://github.com/agilepro/dmn-tck"));
+		Assertions.assertTrue(durations.containsKey("http://www.trisotech.com/definitions/_4e0f0b70-d31c-471c-bd52-5ca709ed362b"));
+
+		// A model that can't be warmed up doesn't prevent the warm-up of the others.
+		DMNDecisionSession failingDecisionSession = new DMNDecisionSession() {
+			@Override
+			public Map<String, InputStructure> getInputStructure(String namespace) throws ModelNotFoundException, ModelIntrospectionException {
+				if (namespace.equals("https://github.com/agilepro/dmn-tck")) {
+					throw new ModelNotFoundException();
+				}
+				return super.getInputStructure(namespace);
+			}
+		};
+		failingDecisionSession.importModel("https://github.com/agilepro/dmn-tck", decision);
+		failingDecisionSession.importModel("http://www.trisotech.com/definitions/_4e0f0b70-d31c-471c-bd52-5ca709ed362b", otherDecision);
+		Assertions.assertEquals(Collections.singleton("http://www.trisotech.com/definitions/_4e0f0b70-d31c-471c-bd52-5ca709ed362b"), failingDecisionSession.warmUp(1).keySet());
+
+		// The same applies to unchecked exceptions, e.g. of Java models.
+		DMNDecisionSession otherFailingDecisionSession = new DMNDecisionSession() {
+			@Override
+			public ExecutionResult executeModel(String namespace, Map<String, Object> inputs) throws ModelNotFoundException {
+				if (namespace.equals("https://github.com/agilepro/dmn-tck")) {
+					throw new IllegalStateException();
+				}
+				return super.executeModel(namespace, inputs);
+			}
+		};
+		otherFailingDecisionSession.importModel("https://github.com/agilepro/dmn-tck", decision);
+		otherFailingDecisionSession.importModel("http://www.trisotech.com/definitions/_4e0f0b70-d31c-471c-bd52-5ca709ed362b", otherDecision);
+		Assertions.assertEquals(Collections.singleton("http://www.trisotech.com/definitions/_4e0f0b70-d31c-471c-bd52-5ca709ed362b"), otherFailingDecisionSession.warmUp(1).keySet());
+
+		// Inputs without a type don't get a sample.
+		Assertions.assertNull(new InputStructure(null).createSample());
+	}
+
+	@Test
+	void enrichInput() {
+		Map<String, Object> address = new LinkedHashMap<>();
+		address.put("Street", "Main Street");
+		address.put("City", "Dortmund");
+
+		Map<String, Object> inputs = new LinkedHashMap<>();
+		inputs.put("Name", "Jane Doe");
+		inputs.put("Address", address);
+		inputs.put("Children", Arrays.asList("John", "Jim"));
+
+		// If there is no temporal value, nothing is copied.
+		Assertions.assertSame(inputs, DroolsHelper.enrichInput(inputs));
+
+		Map<String, Object> birth = new LinkedHashMap<>();
+		birth.put("Date", "\uE15A2000-01-01");
+		birth.put("Place", "Dortmund");
+		inputs.put("Birth", birth);
+
+		// Only the containers on the path to the temporal value are copied.
+		Map<String, Object> enrichedInputs = (Map<String, Object>) DroolsHelper.enrichInput(inputs);
+		Assertions.assertNotSame(inputs, enrichedInputs);
+		Assertions.assertEquals(new ArrayList<>(inputs.keySet()), new ArrayList<>(enrichedInputs.keySet()));
+		Assertions.assertSame(address, enrichedInputs.get("Address"));
+		Assertions.assertSame(inputs.get("Children"), enrichedInputs.get("Children"));
+		Assertions.assertEquals(LocalDate.of(2000, 1, 1), ((Map<String, Object>) enrichedInputs.get("Birth")).get("Date"));
+		Assertions.assertEquals("\uE15A2000-01-01", birth.get("Date"));
+
+		List<Object> dates = (List<Object>) DroolsHelper.enrichInput(Arrays.asList("Today", "\uE15A2000-01-01", "\uE15DPT1H"));
+		Assertions.assertEquals(Arrays.asList("Today", LocalDate.of(2000, 1, 1), Duration.ofHours(1)), dates);
+
+		// The keys are copied as they are, even if they are null or not strings.
+		Map<Object, Object> events = new LinkedHashMap<>();
+		events.put(null, "Unknown");
+		events.put(1, "\uE15A2000-01-01");
+		Map<Object, Object> enrichedEvents = (Map<Object, Object>) DroolsHelper.enrichInput(events);
+		Assertions.assertEquals(Arrays.asList(null, 1), new ArrayList<>(enrichedEvents.keySet()));
+		Assertions.assertEquals("Unknown", enrichedEvents.get(null));
+		Assertions.assertEquals(LocalDate.of(2000, 1, 1), enrichedEvents.get(1));
+	}
+
+	@Test
+	void cleanOutput() {
+		Map<String, Object> person = new LinkedHashMap<>();
+		person.put("Name", "Jane Doe");
+		person.put("Age", BigDecimal.valueOf(42));
+
+		List<Object> people = new ArrayList<>();
+		people.add(person);
+
+		Map<String, Object> output = new LinkedHashMap<>();
+		output.put("People", people);
+		output.put("Count", BigDecimal.ONE);
+
+		// If there is nothing to replace, nothing is copied.
+		Assertions.assertSame(output, DroolsHelper.cleanOutput(output));
+
+		Map<String, Object> otherPerson = new LinkedHashMap<>();
+		otherPerson.put("Name", "John Doe");
+		otherPerson.put("Birth", LocalDate.of(2000, 1, 1));
+		people.add(otherPerson);
+
+		// Only the containers on the path to the temporal value are copied.
+		Map<String, Object> cleanedOutput = (Map<String, Object>) DroolsHelper.cleanOutput(output);
+		Assertions.assertNotSame(output, cleanedOutput);
+		List<Object> cleanedPeople = (List<Object>) cleanedOutput.get("People");
+		Assertions.assertSame(person, cleanedPeople.get(0));
+		Assertions.assertEquals("\uE15A2000-01-01", ((Map<String, Object>) cleanedPeople.get(1)).get("Birth"));
+		Assertions.assertEquals(LocalDate.of(2000, 1, 1), otherPerson.get("Birth"));
+
+		Assertions.assertEquals("\uE15B10:15:00", DroolsHelper.cleanOutput(LocalTime.of(10, 15)));
+		Assertions.assertEquals("\uE15C2000-01-01T10:15:00", DroolsHelper.cleanOutput(LocalDateTime.of(2000, 1, 1, 10, 15)));
+		Assertions.assertEquals("\uE15C2000-01-01T10:15:00+01:00[Europe/Berlin]", DroolsHelper.cleanOutput(ZonedDateTime.of(2000, 1, 1, 10, 15, 0, 0, ZoneId.of("Europe/Berlin"))));
+		Assertions.assertEquals("\uE15DPT1H", DroolsHelper.cleanOutput(Duration.ofHours(1)));
+		Assertions.assertEquals("\uE15EP1Y2M", DroolsHelper.cleanOutput(Period.of(1, 2, 0)));
+	}
 }
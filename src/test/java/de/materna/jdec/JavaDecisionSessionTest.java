@@ -1,5 +1,6 @@
 package de.materna.jdec;
 
+import de.materna.jdec.entities.EmploymentForm;
 import de.materna.jdec.model.*;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -68,6 +69,21 @@ public class JavaDecisionSessionTest {
 		Assertions.assertEquals("You are UNEMPLOYED", outputs.get("Employment Status Statement"));
 	}
 
+	@Test
+	void executePOJO() throws Exception {
+		JavaDecisionSession decisionSession = new JavaDecisionSession();
+
+		Path decisionPath = Paths.get(getClass().getClassLoader().getResource("java/EmploymentStatusDecision.java").toURI());
+		String decision = new String(Files.readAllBytes(decisionPath));
+		decisionSession.importModel("de.materna.jdec.java.test.EmploymentStatusDecision", decision);
+
+		EmploymentForm employmentForm = new EmploymentForm();
+		employmentForm.setEmploymentStatus("UNEMPLOYED");
+
+		ExecutionResult executionResult = decisionSession.executeModel("de.materna.jdec.java.test.EmploymentStatusDecision", employmentForm);
+		Assertions.assertEquals("You are UNEMPLOYED", executionResult.getOutputs().get("Employment Status Statement"));
+	}
+
 	@Test
 	void executeHashMapWithMissingMethod() throws Exception {
 		JavaDecisionSession decisionSession = new JavaDecisionSession();
@@ -0,0 +1,15 @@
+package de.materna.jdec.entities;
+
+import java.math.BigDecimal;
+
+public class Amount {
+	private BigDecimal value;
+
+	public Amount(BigDecimal value) {
+		this.value = value;
+	}
+
+	public BigDecimal getValue() {
+		return value;
+	}
+}
@@ -0,0 +1,25 @@
+package de.materna.jdec.entities;
+
+import org.camunda.feel.syntaxtree.Val;
+import org.camunda.feel.valuemapper.JavaCustomValueMapper;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Is registered through SPI, so the FEEL engine converts amounts into numbers.
+ */
+public class AmountValueMapper extends JavaCustomValueMapper {
+	@Override
+	public Optional<Val> toValue(Object value, Function<Object, Val> innerValueMapper) {
+		if (value instanceof Amount) {
+			return Optional.of(innerValueMapper.apply(((Amount) value).getValue()));
+		}
+		return Optional.empty();
+	}
+
+	@Override
+	public Optional<Object> unpackValue(Val value, Function<Val, Object> innerValueMapper) {
+		return Optional.empty();
+	}
+}